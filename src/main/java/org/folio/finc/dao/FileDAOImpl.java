@@ -3,67 +3,253 @@ package org.folio.finc.dao;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
-import java.util.List;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowIterator;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import java.time.OffsetDateTime;
+import java.util.Date;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.folio.finc.model.ContentInfo;
 import org.folio.finc.model.File;
-import org.folio.rest.persist.Criteria.Criteria;
-import org.folio.rest.persist.Criteria.Criterion;
+import org.folio.finc.model.StoredContent;
+import org.folio.rest.jaxrs.model.FileInfo;
+import org.folio.rest.persist.Conn;
 import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.utils.ByteRange;
 import org.folio.rest.utils.Constants;
+import org.folio.rest.utils.ContentDigest;
+import org.folio.rest.utils.ContentEncoding;
+import org.folio.rest.utils.ContentTypes;
 
+/**
+ * Stores the metadata of a file as jsonb in the files table. Its content is stored as bytea in the
+ * table file_contents under its {@link ContentDigest}, so byte-identical files share one content,
+ * see file_contents.sql. Contents are gzipped at rest, see {@link ContentEncoding}. Compression and
+ * decompression run on a worker thread.
+ */
 public class FileDAOImpl implements FileDAO {
 
   private static final String TABLE_NAME = "files";
 
+  private static final String SELECT_BY_ID_SQL =
+      "SELECT f.jsonb, c.content, c.encoding FROM %1$s.files f "
+          + "LEFT JOIN %1$s.file_contents c ON c.digest = f.digest WHERE f.id = $1";
+
+  private static final String SELECT_BY_ID_AND_ISIL_SQL =
+      "SELECT f.jsonb, c.content, c.encoding FROM %1$s.files f "
+          + "LEFT JOIN %1$s.file_contents c ON c.digest = f.digest "
+          + "WHERE f.id = $1 AND f.jsonb->>'isil' = $2";
+
+  private static final String CONTENT_INFO_SQL =
+      "SELECT f.digest, c.length, c.encoding FROM %1$s.files f "
+          + "LEFT JOIN %1$s.file_contents c ON c.digest = f.digest "
+          + "WHERE f.id = $1 AND ($2::text IS NULL OR f.jsonb->>'isil' = $2)";
+
+  // length and requested range are read in one query, so they belong to the same content. The
+  // range is resolved as in ByteRange.Request#resolve. substring of an uncompressed bytea only
+  // detoasts the requested slice, an encoded content is read in full.
+  private static final String CONTENT_SQL =
+      "SELECT f.digest, c.length, c.encoding, CASE WHEN c.encoding IS NOT NULL OR r.first IS NULL "
+          + "THEN c.content ELSE substring(c.content FROM (r.first + 1)::int "
+          + "FOR greatest(r.last - r.first + 1, 0)::int) END AS content "
+          + "FROM %1$s.files f LEFT JOIN %1$s.file_contents c ON c.digest = f.digest "
+          + "CROSS JOIN LATERAL (SELECT CASE WHEN $4::bigint IS NOT NULL "
+          + "THEN greatest(c.length - $4::bigint, 0) "
+          + "ELSE least($2::bigint, c.length) END AS first, "
+          + "least(coalesce($3::bigint, c.length - 1), c.length - 1) AS last) r "
+          + "WHERE f.id = $1 AND ($5::text IS NULL OR f.jsonb->>'isil' = $5)";
+
+  private static final String INFO_SQL =
+      "SELECT f.jsonb->>'isil' AS isil, f.digest, f.created_date, c.length, c.content_type "
+          + "FROM %1$s.files f LEFT JOIN %1$s.file_contents c ON c.digest = f.digest "
+          + "WHERE f.id = $1 AND ($2::text IS NULL OR f.jsonb->>'isil' = $2)";
+
+  // locks the content, so it cannot be removed before the referencing file is stored. The lock
+  // has to conflict with itself: with a shared lock, two uploads of the same content would
+  // deadlock when the trigger updates the refcount of the row both of them have locked.
+  private static final String LOCK_CONTENT_SQL =
+      "SELECT 1 FROM %s.file_contents WHERE digest = $1 FOR NO KEY UPDATE";
+
+  private static final String INSERT_CONTENT_SQL =
+      "INSERT INTO %s.file_contents (digest, content, length, encoding, content_type) "
+          + "VALUES ($1, $2, $3, $4, $5) ON CONFLICT (digest) DO NOTHING";
+
+  private static final String UPSERT_SQL =
+      "INSERT INTO %s.files (id, jsonb, digest) VALUES ($1, $2, $3) "
+          + "ON CONFLICT (id) DO UPDATE SET jsonb = EXCLUDED.jsonb, digest = EXCLUDED.digest";
+
   @Override
   public Future<File> getById(String id, Context vertxContext) {
-    Criteria idCrit =
-        new Criteria().addField("id").setJSONB(false).setOperation("=").setVal(id);
-    Criterion criterion = new Criterion(idCrit);
-    return getByCriterion(criterion, vertxContext);
+    UUID uuid = toUuid(id);
+    if (uuid == null) {
+      return Future.succeededFuture();
+    }
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .execute(String.format(SELECT_BY_ID_SQL, schema()), Tuple.of(uuid))
+        .compose(rows -> toFile(rows, vertxContext))
+        .recover(throwable -> Future.failedFuture("Cannot get file by id " + throwable));
   }
 
   @Override
-  public Future<File> getByCriterion(Criterion criterion, Context vertxContext) {
-    Promise<File> result = Promise.promise();
-    PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
-        .get(
-            TABLE_NAME,
-            File.class,
-            criterion,
-            false,
-            reply -> {
-              if (reply.succeeded()) {
-                List<File> fileList = reply.result().getResults();
-                File file;
-                if (fileList.isEmpty()) {
-                  file = null;
-                } else {
-                  file = fileList.get(0);
-                }
-                result.complete(file);
-              } else {
-                result.fail("Cannot get file by id " + reply.cause());
+  public Future<File> getByIdAndIsil(String id, String isil, Context vertxContext) {
+    UUID uuid = toUuid(id);
+    if (uuid == null) {
+      return Future.succeededFuture();
+    }
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .execute(String.format(SELECT_BY_ID_AND_ISIL_SQL, schema()), Tuple.of(uuid, isil))
+        .compose(rows -> toFile(rows, vertxContext))
+        .recover(throwable -> Future.failedFuture("Cannot get file by id " + throwable));
+  }
+
+  /**
+   * @param isil Isil the file has to be assigned to, null to get the content info of any file
+   * @return Length and encoding of the content or null if there is no such file
+   */
+  @Override
+  public Future<ContentInfo> getContentInfo(String id, String isil, Context vertxContext) {
+    UUID uuid = toUuid(id);
+    if (uuid == null) {
+      return Future.succeededFuture();
+    }
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .execute(String.format(CONTENT_INFO_SQL, schema()), Tuple.of(uuid, isil))
+        .map(
+            rows -> {
+              RowIterator<Row> iterator = rows.iterator();
+              if (!iterator.hasNext()) {
+                return null;
               }
-            });
-    return result.future();
+              Row row = iterator.next();
+              Long length = row.getLong("length");
+              return new ContentInfo()
+                  .withLength(length == null ? 0L : length)
+                  .withEncoding(row.getString("encoding"))
+                  .withDigest(row.getString("digest"));
+            })
+        .recover(throwable -> Future.failedFuture("Cannot get file by id " + throwable));
   }
 
+  /**
+   * Gets the metadata of a file without reading its content.
+   *
+   * @param isil Isil the file has to be assigned to, null to get the info of any file
+   * @return The info or null if there is no such file
+   */
   @Override
-  public Future<File> upsert(File entity, String id, Context vertxContext) {
-    Promise<File> result = Promise.promise();
-    PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
-        .upsert(
-            TABLE_NAME,
-            id,
-            entity,
-            asyncResult -> {
-              if (asyncResult.succeeded()) {
-                result.complete(entity);
-              } else {
-                result.fail("Cannot upsert file: " + asyncResult.cause());
+  public Future<FileInfo> getInfo(String id, String isil, Context vertxContext) {
+    UUID uuid = toUuid(id);
+    if (uuid == null) {
+      return Future.succeededFuture();
+    }
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .execute(String.format(INFO_SQL, schema()), Tuple.of(uuid, isil))
+        .map(
+            rows -> {
+              RowIterator<Row> iterator = rows.iterator();
+              if (!iterator.hasNext()) {
+                return null;
               }
-            });
-    return result.future();
+              Row row = iterator.next();
+              Long length = row.getLong("length");
+              String contentType = row.getString("content_type");
+              OffsetDateTime createdDate = row.getOffsetDateTime("created_date");
+              return new FileInfo()
+                  .withId(id)
+                  .withIsil(row.getString("isil"))
+                  .withSize(length == null ? 0L : length)
+                  .withSha256(row.getString("digest"))
+                  .withContentType(contentType == null ? ContentTypes.OCTET_STREAM : contentType)
+                  .withCreatedDate(
+                      createdDate == null ? null : Date.from(createdDate.toInstant()));
+            })
+        .recover(throwable -> Future.failedFuture("Cannot get file info by id " + throwable));
+  }
+
+  /**
+   * Reads length, encoding and digest of the content together with the requested range.
+   *
+   * @param isil Isil the file has to be assigned to, null to get the content of any file
+   * @param range The requested range, null for the full content
+   * @return The content or null if there is no such file
+   */
+  @Override
+  public Future<StoredContent> getContent(
+      String id, String isil, ByteRange.Request range, Context vertxContext) {
+    UUID uuid = toUuid(id);
+    if (uuid == null) {
+      return Future.succeededFuture();
+    }
+    Tuple params =
+        range == null
+            ? Tuple.of(uuid, null, null, null, isil)
+            : Tuple.of(
+                uuid, range.getFirst(), range.getLast(), range.getSuffixLength(), isil);
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .execute(String.format(CONTENT_SQL, schema()), params)
+        .map(
+            rows -> {
+              RowIterator<Row> iterator = rows.iterator();
+              if (!iterator.hasNext()) {
+                return null;
+              }
+              Row row = iterator.next();
+              Long length = row.getLong("length");
+              Buffer content = row.getBuffer("content");
+              ContentInfo info =
+                  new ContentInfo()
+                      .withLength(length == null ? 0L : length)
+                      .withEncoding(row.getString("encoding"))
+                      .withDigest(row.getString("digest"));
+              return new StoredContent()
+                  .withInfo(info)
+                  .withBytes(content == null ? new byte[0] : content.getBytes());
+            })
+        .recover(throwable -> Future.failedFuture("Cannot get file by id " + throwable));
+  }
+
+  @Override
+  public Future<File> upsert(File entity, String id, Context vertxContext) {
+    byte[] content = entity.getContent() == null ? new byte[0] : entity.getContent();
+    return upsert(
+        entity, id, ContentDigest.of(content), () -> Future.succeededFuture(content), vertxContext);
+  }
+
+  /**
+   * @param digest {@link ContentDigest} of the content
+   * @param content Supplies the content, only called if there is no stored content with the digest
+   */
+  @Override
+  public Future<File> upsert(
+      File entity,
+      String id,
+      String digest,
+      Supplier<Future<byte[]>> content,
+      Context vertxContext) {
+    String schema = schema();
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .withTrans(
+            conn ->
+                conn.execute(String.format(LOCK_CONTENT_SQL, schema), Tuple.of(digest))
+                    .compose(
+                        rows ->
+                            rows.size() > 0
+                                ? Future.<Void>succeededFuture()
+                                : content
+                                    .get()
+                                    .compose(
+                                        bytes -> insertContent(conn, digest, bytes, vertxContext)))
+                    .compose(
+                        v ->
+                            conn.execute(
+                                String.format(UPSERT_SQL, schema),
+                                Tuple.of(UUID.fromString(id), JsonObject.mapFrom(entity), digest))))
+        .map(entity)
+        .recover(throwable -> Future.failedFuture("Cannot upsert file: " + throwable));
   }
 
   @Override
@@ -80,4 +266,69 @@ public class FileDAOImpl implements FileDAO {
     return result.future();
   }
 
+  private static Future<Void> insertContent(
+      Conn conn, String digest, byte[] content, Context vertxContext) {
+    String contentType = ContentTypes.detect(content);
+    if (!ContentEncoding.isCompressionEnabled()) {
+      return insertContent(conn, digest, content, content.length, null, contentType);
+    }
+    return vertxContext
+        .<byte[]>executeBlocking(promise -> promise.complete(ContentEncoding.gzip(content)), false)
+        .compose(
+            gzipped ->
+                // keep the content as is if gzip does not make it smaller
+                gzipped.length < content.length
+                    ? insertContent(
+                        conn, digest, gzipped, content.length, ContentEncoding.GZIP, contentType)
+                    : insertContent(conn, digest, content, content.length, null, contentType));
+  }
+
+  private static Future<Void> insertContent(
+      Conn conn, String digest, byte[] stored, long length, String encoding, String contentType) {
+    return conn.execute(
+            String.format(INSERT_CONTENT_SQL, schema()),
+            Tuple.of(digest, Buffer.buffer(stored), length, encoding, contentType))
+        .mapEmpty();
+  }
+
+  private static Future<byte[]> decode(
+      Buffer content, String encoding, long offset, long length, Context vertxContext) {
+    if (content == null) {
+      return Future.succeededFuture(new byte[0]);
+    }
+    if (encoding == null) {
+      return Future.succeededFuture(content.getBytes());
+    }
+    if (!ContentEncoding.GZIP.equals(encoding)) {
+      return Future.failedFuture("Unknown content encoding " + encoding);
+    }
+    return vertxContext.executeBlocking(
+        promise -> promise.complete(ContentEncoding.gunzip(content.getBytes(), offset, length)),
+        false);
+  }
+
+  private static Future<File> toFile(RowSet<Row> rows, Context vertxContext) {
+    RowIterator<Row> iterator = rows.iterator();
+    if (!iterator.hasNext()) {
+      return Future.succeededFuture();
+    }
+    Row row = iterator.next();
+    File file = row.getJsonObject("jsonb").mapTo(File.class);
+    return decode(
+            row.getBuffer("content"), row.getString("encoding"), 0, Integer.MAX_VALUE, vertxContext)
+        .map(file::withContent);
+  }
+
+  /** @return The UUID or null if id is not a UUID, there cannot be a file with such an id */
+  private static UUID toUuid(String id) {
+    try {
+      return UUID.fromString(id);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static String schema() {
+    return PostgresClient.convertToPsqlStandard(Constants.MODULE_TENANT);
+  }
 }
@@ -6,4 +6,6 @@ import io.vertx.core.Future;
 public interface IsilDAO {
 
   Future<String> getIsilForTenant(String tenantId, Context context);
+
+  Future<String> fetchIsilForTenant(String tenantId, Context context);
 }
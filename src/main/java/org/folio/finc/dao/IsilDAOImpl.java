@@ -3,19 +3,63 @@ package org.folio.finc.dao;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import org.folio.rest.jaxrs.model.Isil;
 import org.folio.rest.persist.Criteria.Criteria;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.utils.ConfigUtils;
 import org.folio.rest.utils.Constants;
 
+/**
+ * Resolves the isil of a tenant. Resolutions, including tenants without isil, are cached per
+ * {@link Vertx} and shared by all instances of this class. Changes of isils have to be announced
+ * with {@link #invalidateCache(Vertx)}, which clears the cache and publishes to {@value
+ * #INVALIDATE_ADDRESS} on the event bus of the given {@link Vertx} only; the module does not run
+ * a clustered event bus. Other module instances therefore keep their entries until they expire
+ * after the setting {@value #CACHE_TTL} (milliseconds).
+ */
 public class IsilDAOImpl implements IsilDAO {
 
+  public static final String INVALIDATE_ADDRESS = "finc.isils.invalidate";
+  public static final String CACHE_TTL = "finc.isilCache.ttl";
+
   private static final String TABLE_NAME = "isils";
+  private static final Map<Vertx, Map<String, CacheEntry>> caches = new WeakHashMap<>();
 
+  /**
+   * Returns the isil of the tenant from the cache, fetching it on a miss.
+   *
+   * @return The isil or null if the tenant has no isil
+   */
   @Override
   public Future<String> getIsilForTenant(String tenantId, Context context) {
+    Map<String, CacheEntry> cache = getCache(context.owner());
+    long now = System.currentTimeMillis();
+    CacheEntry entry =
+        cache.compute(
+            tenantId,
+            (key, cached) ->
+                cached != null && cached.expiresAt > now
+                    ? cached
+                    : new CacheEntry(
+                        fetchIsilForTenant(tenantId, context),
+                        now + ConfigUtils.getInt(CACHE_TTL, 300000)));
+    entry.isil.onFailure(throwable -> cache.remove(tenantId, entry));
+    return entry.isil;
+  }
+
+  /**
+   * Fetches the isil of the tenant from the database, bypassing the cache.
+   *
+   * @return The isil or null if the tenant has no isil
+   */
+  @Override
+  public Future<String> fetchIsilForTenant(String tenantId, Context context) {
     Promise<String> future = Promise.promise();
     Criteria tenantCrit =
         new Criteria().addField("'tenant'").setJSONB(true).setOperation("=").setVal(tenantId);
@@ -44,4 +88,38 @@ public class IsilDAOImpl implements IsilDAO {
             });
     return future.future();
   }
+
+  /**
+   * Discards all cached isils of this module instance after isils have been created, changed or
+   * deleted.
+   *
+   * @param vertx The module's vertx
+   */
+  public static void invalidateCache(Vertx vertx) {
+    getCache(vertx).clear();
+    vertx.eventBus().publish(INVALIDATE_ADDRESS, null);
+  }
+
+  private static Map<String, CacheEntry> getCache(Vertx vertx) {
+    synchronized (caches) {
+      return caches.computeIfAbsent(
+          vertx,
+          v -> {
+            Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+            v.eventBus().consumer(INVALIDATE_ADDRESS, message -> cache.clear());
+            return cache;
+          });
+    }
+  }
+
+  private static class CacheEntry {
+
+    private final Future<String> isil;
+    private final long expiresAt;
+
+    CacheEntry(Future<String> isil, long expiresAt) {
+      this.isil = isil;
+      this.expiresAt = expiresAt;
+    }
+  }
 }
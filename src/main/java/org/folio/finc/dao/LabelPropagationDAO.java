@@ -0,0 +1,12 @@
+package org.folio.finc.dao;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import org.folio.rest.jaxrs.model.LabelPropagation;
+
+public interface LabelPropagationDAO {
+
+  Future<Boolean> propagate(int batchSize, Context vertxContext);
+
+  Future<LabelPropagation> getByMetadataSourceId(String metadataSourceId, Context vertxContext);
+}
@@ -0,0 +1,78 @@
+package org.folio.finc.dao;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowIterator;
+import io.vertx.sqlclient.Tuple;
+import java.time.OffsetDateTime;
+import java.util.Date;
+import org.folio.rest.jaxrs.model.LabelPropagation;
+import org.folio.rest.jaxrs.model.LabelPropagation.State;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.utils.Constants;
+
+/**
+ * Accesses the propagation of renamed metadata source labels to their collections, see
+ * metadata_sources_trigger.sql.
+ */
+public class LabelPropagationDAOImpl implements LabelPropagationDAO {
+
+  private static final String PROPAGATE_SQL =
+      "SELECT %s.propagate_md_source_labels($1) AS propagated";
+
+  private static final String GET_SQL =
+      "SELECT md_source_id, label #>> '{}' AS label, state, total, processed, queued_at, "
+          + "completed_at FROM %s.md_source_label_propagation WHERE md_source_id = $1";
+
+  /**
+   * Propagates the label of the longest pending metadata source to at most batchSize of its
+   * collections in one transaction.
+   *
+   * @return False if there was no pending propagation
+   */
+  @Override
+  public Future<Boolean> propagate(int batchSize, Context vertxContext) {
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .execute(String.format(PROPAGATE_SQL, schema()), Tuple.of(batchSize))
+        .map(rows -> rows.iterator().next().getBoolean("propagated"))
+        .recover(
+            throwable ->
+                Future.failedFuture("Cannot propagate metadata source labels: " + throwable));
+  }
+
+  /** @return The propagation or null if the metadata source has not been renamed */
+  @Override
+  public Future<LabelPropagation> getByMetadataSourceId(
+      String metadataSourceId, Context vertxContext) {
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .execute(String.format(GET_SQL, schema()), Tuple.of(metadataSourceId))
+        .map(
+            rows -> {
+              RowIterator<Row> iterator = rows.iterator();
+              return iterator.hasNext() ? toLabelPropagation(iterator.next()) : null;
+            })
+        .recover(
+            throwable ->
+                Future.failedFuture("Cannot get label propagation: " + throwable));
+  }
+
+  private static LabelPropagation toLabelPropagation(Row row) {
+    return new LabelPropagation()
+        .withMetadataSourceId(row.getString("md_source_id"))
+        .withLabel(row.getString("label"))
+        .withState(State.fromValue(row.getString("state")))
+        .withTotal(row.getInteger("total"))
+        .withProcessed(row.getInteger("processed"))
+        .withQueuedDate(toDate(row.getOffsetDateTime("queued_at")))
+        .withCompletedDate(toDate(row.getOffsetDateTime("completed_at")));
+  }
+
+  private static Date toDate(OffsetDateTime dateTime) {
+    return dateTime == null ? null : Date.from(dateTime.toInstant());
+  }
+
+  private static String schema() {
+    return PostgresClient.convertToPsqlStandard(Constants.MODULE_TENANT);
+  }
+}
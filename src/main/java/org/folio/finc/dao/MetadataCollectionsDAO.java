@@ -2,6 +2,10 @@ package org.folio.finc.dao;
 
 import io.vertx.core.Context;
 import io.vertx.core.Future;
+import java.util.List;
+import org.folio.finc.select.query.QueryMode;
+import org.folio.finc.select.query.YesNoQuery;
+import org.folio.rest.jaxrs.model.CollectionSelectResult;
 import org.folio.rest.jaxrs.model.FincConfigMetadataCollection;
 import org.folio.rest.jaxrs.model.FincConfigMetadataCollections;
 
@@ -10,8 +14,24 @@ public interface MetadataCollectionsDAO {
   Future<FincConfigMetadataCollections> getAll(
       String query, int offset, int limit, Context vertxContext);
 
+  Future<FincConfigMetadataCollections> getAll(
+      String query,
+      YesNoQuery selected,
+      YesNoQuery permitted,
+      QueryMode queryMode,
+      String isil,
+      int offset,
+      int limit,
+      Context vertxContext);
+
   Future<FincConfigMetadataCollection> getById(String id, Context vertxContext);
 
   Future<FincConfigMetadataCollection> update(
       FincConfigMetadataCollection entity, String id, Context vertxContext);
+
+  Future<FincConfigMetadataCollection> select(
+      String id, String isil, boolean select, Context vertxContext);
+
+  Future<List<CollectionSelectResult>> selectBatch(
+      List<String> ids, String isil, boolean select, Context vertxContext);
 }
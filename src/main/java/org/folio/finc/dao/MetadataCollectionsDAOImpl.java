@@ -1,12 +1,33 @@
 package org.folio.finc.dao;
 
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 import org.folio.cql2pgjson.CQL2PgJSON;
 import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.cql2pgjson.exception.QueryValidationException;
+import org.folio.cql2pgjson.model.SqlSelect;
+import org.folio.finc.select.exception.FincSelectNotPermittedException;
+import org.folio.finc.select.query.QueryMode;
+import org.folio.finc.select.query.YesNoQuery;
+import org.folio.rest.jaxrs.model.CollectionSelectResult;
 import org.folio.rest.jaxrs.model.FincConfigMetadataCollection;
 import org.folio.rest.jaxrs.model.FincConfigMetadataCollections;
 import org.folio.rest.persist.Criteria.Limit;
@@ -18,6 +39,86 @@ import org.folio.rest.utils.Constants;
 public class MetadataCollectionsDAOImpl implements MetadataCollectionsDAO {
 
   private static final String TABLE_NAME = "metadata_collections";
+  private static final String SELECTIONS_TABLE_NAME = "collection_selections";
+
+  /** $2 is the isil */
+  private static final String PERMITTED =
+      "(usage_restriction = 'no' OR COALESCE(jsonb->'permittedFor', '[]'::jsonb) ? $2)";
+
+  private static final String SELECTED = "COALESCE(jsonb->'selectedBy', '[]'::jsonb) ? $2";
+
+  /** Updates the collection only if it is permitted and its selectedBy array needs to change. */
+  private static final String SELECT_SQL =
+      "UPDATE %s SET jsonb = jsonb_set(jsonb, '{selectedBy}', "
+          + "COALESCE(jsonb->'selectedBy', '[]'::jsonb) || to_jsonb($2::text), TRUE) "
+          + "WHERE id = $1::uuid AND "
+          + PERMITTED
+          + " AND NOT "
+          + SELECTED
+          + " RETURNING jsonb";
+
+  private static final String UNSELECT_SQL =
+      "UPDATE %s SET jsonb = jsonb_set(jsonb, '{selectedBy}', "
+          + "(jsonb->'selectedBy') - $2::text, TRUE) "
+          + "WHERE id = $1::uuid AND "
+          + PERMITTED
+          + " AND "
+          + SELECTED
+          + " RETURNING jsonb";
+
+  /**
+   * (Un)selects all requested collections that are permitted and need to change with a single
+   * statement. Returns one row per requested id telling if it was found and permitted, and the
+   * metadata source of the changed collections. %1$s is the table, %2$s the new selectedBy array,
+   * %3$s the condition that the collection needs to change.
+   */
+  private static final String SELECT_BATCH_SQL =
+      "WITH requested AS (SELECT DISTINCT unnest($1::text[])::uuid AS id), "
+          + "target AS (SELECT c.id, "
+          + PERMITTED
+          + " AS permitted FROM requested r JOIN %1$s c ON c.id = r.id), "
+          + "updated AS (UPDATE %1$s c SET jsonb = jsonb_set(jsonb, '{selectedBy}', %2$s, TRUE) "
+          + "FROM target WHERE c.id = target.id AND target.permitted AND %3$s "
+          + "RETURNING c.id, c.md_source_id) "
+          + "SELECT r.id, t.id IS NOT NULL AS found, COALESCE(t.permitted, FALSE) AS permitted, "
+          + "u.md_source_id FROM requested r "
+          + "LEFT JOIN target t ON t.id = r.id LEFT JOIN updated u ON u.id = r.id";
+
+  private static final String SELECTED_BY_WITH_ISIL =
+      "COALESCE(jsonb->'selectedBy', '[]'::jsonb) || to_jsonb($2::text)";
+
+  private static final String SELECTED_BY_WITHOUT_ISIL = "(jsonb->'selectedBy') - $2::text";
+
+  private static final String DEFER_SELECTED_STATE_SQL =
+      "SET LOCAL finc.defer_selected_state = 'on'";
+
+  private static final String UPDATE_SELECTED_STATE_SQL =
+      "SELECT %s.update_selected_state(id) FROM unnest($1::text[]) AS id";
+
+  /**
+   * Estimates the total like {@link PostgresClient#get} does, exact counts of large results are
+   * too expensive. %s is the schema, $1 the query to count, it cannot have parameters.
+   */
+  private static final String COUNT_SQL = "SELECT %s.count_estimate($1) AS total";
+
+  /** %1$s is the table, %2$s the where clause, %3$s the order by clause, %4$d/%5$d limit/offset */
+  private static final String PAGE_SQL =
+      "SELECT jsonb FROM %1$s WHERE %2$s%3$s LIMIT %4$d OFFSET %5$d";
+
+  /** %s is the selections table, $1 the isil */
+  private static final String SELECTED_BY_ISIL =
+      "id IN (SELECT collection_id FROM %s WHERE isil = $1)";
+
+  /** Uses the jsonb_path_ops GIN index of selectedBy, $1 is the isil */
+  private static final String SELECTED_BY_CONTAINS_ISIL =
+      "jsonb->'selectedBy' @> jsonb_build_array($1::text)";
+
+  /** Uses the jsonb_path_ops GIN index of permittedFor, $1 is the isil */
+  private static final String PERMITTED_FOR_CONTAINS_ISIL =
+      "jsonb->'permittedFor' @> jsonb_build_array($1::text)";
+
+  private static final String PERMITTED_SQL =
+      "SELECT jsonb, " + PERMITTED + " AS permitted FROM %s WHERE id = $1::uuid";
 
   @Override
   public Future<FincConfigMetadataCollections> getAll(
@@ -60,6 +161,70 @@ public class MetadataCollectionsDAOImpl implements MetadataCollectionsDAO {
     return result.future();
   }
 
+  /**
+   * Gets the metadata collections matching the query and the queries for the selected resp.
+   * permitted state of the isil. The latter are answered with the collection selections table or
+   * with jsonb containment, depending on the query mode. Both use indexes instead of matching the
+   * selectedBy resp. permittedFor arrays of all collections as text.
+   */
+  @Override
+  public Future<FincConfigMetadataCollections> getAll(
+      String query,
+      YesNoQuery selected,
+      YesNoQuery permitted,
+      QueryMode queryMode,
+      String isil,
+      int offset,
+      int limit,
+      Context vertxContext) {
+    String schema = PostgresClient.convertToPsqlStandard(Constants.MODULE_TENANT);
+    String table = schema + "." + TABLE_NAME;
+    SqlSelect sqlSelect;
+    try {
+      sqlSelect = new CQL2PgJSON(TABLE_NAME + ".jsonb").toSql(query);
+    } catch (FieldException | QueryValidationException e) {
+      return Future.failedFuture(e);
+    }
+
+    String where = "(" + sqlSelect.getWhere() + ")";
+    StringBuilder conditions = new StringBuilder();
+    if (selected != null) {
+      conditions.append(" AND ").append(toSelectedCondition(selected, queryMode, schema));
+    }
+    if (permitted != null) {
+      conditions.append(" AND ").append(toPermittedCondition(permitted));
+    }
+    String orderBy =
+        sqlSelect.getOrderBy() == null || sqlSelect.getOrderBy().isEmpty()
+            ? ""
+            : " ORDER BY " + sqlSelect.getOrderBy();
+    Tuple params = selected == null && permitted == null ? Tuple.tuple() : Tuple.of(isil);
+    PostgresClient pgClient =
+        PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT);
+    // the query to count cannot have parameters, render the isil as literal
+    String countConditions =
+        isil == null ? conditions.toString() : conditions.toString().replace("$1", toLiteral(isil));
+    String countQuery = "SELECT jsonb FROM " + table + " WHERE " + where + countConditions;
+    Future<RowSet<Row>> count =
+        pgClient.execute(String.format(COUNT_SQL, schema), Tuple.of(countQuery));
+    Future<RowSet<Row>> page =
+        pgClient.execute(
+            String.format(PAGE_SQL, table, where + conditions, orderBy, limit, offset), params);
+
+    return CompositeFuture.all(count, page)
+        .map(
+            v ->
+                new FincConfigMetadataCollections()
+                    .withFincConfigMetadataCollections(
+                        StreamSupport.stream(page.result().spliterator(), false)
+                            .map(MetadataCollectionsDAOImpl::toCollection)
+                            .collect(Collectors.toList()))
+                    .withTotalRecords(
+                        count.result().iterator().next().getLong("total").intValue()))
+        .recover(
+            throwable -> Future.failedFuture("Cannot get metadata collections. " + throwable));
+  }
+
   @Override
   public Future<FincConfigMetadataCollection> getById(String id, Context vertxContext) {
     Promise<FincConfigMetadataCollection> result = Promise.promise();
@@ -101,6 +266,175 @@ public class MetadataCollectionsDAOImpl implements MetadataCollectionsDAO {
     return result.future();
   }
 
+  /**
+   * Selects resp. unselects the metadata collection for the isil with a single conditional update.
+   * Only if nothing was updated, the collection is read again to tell apart a missing, a not
+   * permitted and an already (un)selected collection.
+   *
+   * @return The metadata collection, null if it does not exist or id is not a UUID, failed with
+   *     {@link FincSelectNotPermittedException} if it is not permitted for the isil
+   */
+  @Override
+  public Future<FincConfigMetadataCollection> select(
+      String id, String isil, boolean select, Context vertxContext) {
+    UUID uuid = toUuid(id);
+    if (uuid == null) {
+      return Future.succeededFuture();
+    }
+    String table =
+        PostgresClient.convertToPsqlStandard(Constants.MODULE_TENANT) + "." + TABLE_NAME;
+    PostgresClient pgClient =
+        PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT);
+    Tuple params = Tuple.of(uuid, isil);
+
+    return pgClient
+        .execute(String.format(select ? SELECT_SQL : UNSELECT_SQL, table), params)
+        .compose(
+            updated -> {
+              if (updated.rowCount() > 0) {
+                return Future.succeededFuture(toCollection(updated.iterator().next()));
+              }
+              return pgClient
+                  .execute(String.format(PERMITTED_SQL, table), params)
+                  .compose(
+                      rows -> {
+                        if (rows.rowCount() == 0) {
+                          return Future.succeededFuture(null);
+                        }
+                        Row row = rows.iterator().next();
+                        if (!Boolean.TRUE.equals(row.getBoolean("permitted"))) {
+                          return Future.failedFuture(
+                              new FincSelectNotPermittedException(
+                                  "Selecting this metadata collection is not permitted"));
+                        }
+                        return Future.succeededFuture(toCollection(row));
+                      });
+            });
+  }
+
+  /**
+   * Selects resp. unselects several metadata collections for the isil in one transaction. The
+   * selectedBy triggers are deferred, the selected state of each affected metadata source is
+   * recomputed once.
+   *
+   * @return One result per distinct requested id, in request order. An id that is not a UUID is
+   *     reported as not found.
+   */
+  @Override
+  public Future<List<CollectionSelectResult>> selectBatch(
+      List<String> ids, String isil, boolean select, Context vertxContext) {
+    String[] uuids =
+        ids.stream()
+            .map(MetadataCollectionsDAOImpl::toUuid)
+            .filter(Objects::nonNull)
+            .map(UUID::toString)
+            .toArray(String[]::new);
+    if (uuids.length == 0) {
+      return Future.succeededFuture(toResultList(ids, Collections.emptyMap()));
+    }
+    String schema = PostgresClient.convertToPsqlStandard(Constants.MODULE_TENANT);
+    String sql =
+        String.format(
+            SELECT_BATCH_SQL,
+            schema + "." + TABLE_NAME,
+            select ? SELECTED_BY_WITH_ISIL : SELECTED_BY_WITHOUT_ISIL,
+            select ? "NOT " + SELECTED : SELECTED);
+
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .withTrans(
+            conn ->
+                conn.execute(DEFER_SELECTED_STATE_SQL)
+                    .compose(v -> conn.execute(sql, Tuple.of(uuids, isil)))
+                    .compose(
+                        rows -> {
+                          Map<String, CollectionSelectResult.Result> results = new HashMap<>();
+                          Set<String> mdSourceIds = new HashSet<>();
+                          for (Row row : rows) {
+                            results.put(row.getUUID("id").toString(), toResult(row));
+                            if (row.getString("md_source_id") != null) {
+                              mdSourceIds.add(row.getString("md_source_id"));
+                            }
+                          }
+                          Future<Void> selectedState =
+                              mdSourceIds.isEmpty()
+                                  ? Future.succeededFuture()
+                                  : conn.execute(
+                                          String.format(UPDATE_SELECTED_STATE_SQL, schema),
+                                          Tuple.of((Object) mdSourceIds.toArray(new String[0])))
+                                      .mapEmpty();
+                          return selectedState.map(v -> toResultList(ids, results));
+                        }))
+        .recover(
+            throwable ->
+                Future.failedFuture("Cannot (un)select metadata collections: " + throwable));
+  }
+
+  private static CollectionSelectResult.Result toResult(Row row) {
+    if (!row.getBoolean("found")) {
+      return CollectionSelectResult.Result.NOT_FOUND;
+    }
+    return row.getBoolean("permitted")
+        ? CollectionSelectResult.Result.OK
+        : CollectionSelectResult.Result.NOT_PERMITTED;
+  }
+
+  private static List<CollectionSelectResult> toResultList(
+      List<String> ids, Map<String, CollectionSelectResult.Result> results) {
+    Map<String, CollectionSelectResult> resultList = new LinkedHashMap<>();
+    ids.forEach(
+        id ->
+            resultList.computeIfAbsent(
+                key(id),
+                key ->
+                    new CollectionSelectResult()
+                        .withId(id)
+                        .withResult(
+                            results.getOrDefault(key, CollectionSelectResult.Result.NOT_FOUND))));
+    return new ArrayList<>(resultList.values());
+  }
+
+  /** Requested ids of the same UUID share one result */
+  private static String key(String id) {
+    UUID uuid = toUuid(id);
+    return uuid == null ? id : uuid.toString();
+  }
+
+  /** @return The UUID or null if id is not a UUID, there cannot be a collection with such an id */
+  private static UUID toUuid(String id) {
+    try {
+      return UUID.fromString(id);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static String toSelectedCondition(
+      YesNoQuery selected, QueryMode queryMode, String schema) {
+    String selectedByIsil =
+        queryMode == QueryMode.JSONB
+            ? SELECTED_BY_CONTAINS_ISIL
+            : String.format(SELECTED_BY_ISIL, schema + "." + SELECTIONS_TABLE_NAME);
+    return selected.toSql(selectedByIsil, "NOT COALESCE(" + selectedByIsil + ", FALSE)");
+  }
+
+  /** Same semantics as the CQL translation, see {@link org.folio.finc.select.query.QueryTranslator} */
+  private static String toPermittedCondition(YesNoQuery permitted) {
+    return permitted.toSql(
+        "(" + PERMITTED_FOR_CONTAINS_ISIL + " OR usage_restriction = 'no')",
+        "(NOT COALESCE("
+            + PERMITTED_FOR_CONTAINS_ISIL
+            + ", FALSE) AND usage_restriction = 'yes')");
+  }
+
+  /** Renders the value as SQL string literal, relies on standard_conforming_strings */
+  private static String toLiteral(String value) {
+    return "'" + value.replace("'", "''") + "'";
+  }
+
+  private static FincConfigMetadataCollection toCollection(Row row) {
+    return row.getJsonObject("jsonb").mapTo(FincConfigMetadataCollection.class);
+  }
+
   private CQLWrapper getCQL(String query, int limit, int offset) throws FieldException {
     CQL2PgJSON cql2PgJSON = new CQL2PgJSON(Arrays.asList(TABLE_NAME + ".jsonb"));
     return new CQLWrapper(cql2PgJSON, query)
@@ -0,0 +1,22 @@
+package org.folio.finc.dao;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import java.util.List;
+import org.folio.finc.model.SelectionChunk;
+
+public interface MetadataSourceSelectionDAO {
+
+  Future<SelectionChunk> selectChunk(
+      List<String> mdSourceIds,
+      String isil,
+      boolean select,
+      int chunkSize,
+      SelectionChunk previous,
+      Context vertxContext);
+
+  Future<Void> updateSelectedState(List<String> mdSourceIds, Context vertxContext);
+
+  Future<Integer> count(
+      List<String> mdSourceIds, String isil, boolean select, Context vertxContext);
+}
@@ -0,0 +1,157 @@
+package org.folio.finc.dao;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import java.util.List;
+import java.util.UUID;
+import org.folio.finc.model.SelectionChunk;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.utils.Constants;
+
+/**
+ * Selects resp. unselects the metadata collections of metadata sources with set-based statements
+ * in chunks of limited size. Every chunk runs in its own transaction in which the statement-level
+ * triggers on metadata_collections only update the selection counters and defer the recomputation
+ * of the selected state, so it needs to be recomputed once via {@link #updateSelectedState(List,
+ * Context)} after the last chunk.
+ */
+public class MetadataSourceSelectionDAOImpl implements MetadataSourceSelectionDAO {
+
+  private static final String TABLE_NAME = "metadata_collections";
+
+  /**
+   * Permitted means usageRestricted is set to no or the isil is listed in the permittedFor array.
+   * $1 is the array of metadata source ids, $2 the isil. Uses the index on the generated columns
+   * md_source_id and usage_restriction.
+   */
+  private static final String PERMITTED_COLLECTIONS_OF_SOURCE =
+      "md_source_id = ANY($1::text[]) "
+          + "AND (usage_restriction = 'no' OR jsonb->'permittedFor' ? $2::text)";
+
+  /** Collections that are not selected by the isil yet */
+  private static final String TO_SELECT =
+      PERMITTED_COLLECTIONS_OF_SOURCE
+          + " AND NOT COALESCE(jsonb->'selectedBy', '[]'::jsonb) ? $2::text";
+
+  /** Collections that are still selected by the isil */
+  private static final String TO_UNSELECT =
+      PERMITTED_COLLECTIONS_OF_SOURCE + " AND jsonb->'selectedBy' ? $2::text";
+
+  /**
+   * Takes the next $3 matching collections in the order of md_source_id and id, locking them. The
+   * chunk continues after the last collection of the previous chunk given as $4 and $5, so every
+   * chunk starts where the previous one stopped instead of walking past the collections changed
+   * already. Uses the index on md_source_id and id.
+   */
+  private static final String CHUNK =
+      "WITH chunk AS (SELECT id FROM %1$s WHERE %2$s%3$s "
+          + "ORDER BY md_source_id, id LIMIT $3 FOR UPDATE), "
+          + "updated AS (UPDATE %1$s AS c SET jsonb = %4$s FROM chunk WHERE c.id = chunk.id "
+          + "RETURNING c.md_source_id, c.id) "
+          + "SELECT md_source_id, id, count(*) OVER () AS changed FROM updated "
+          + "ORDER BY md_source_id DESC, id DESC LIMIT 1";
+
+  private static final String AFTER = " AND (md_source_id, id) > ($4::text, $5::uuid)";
+
+  private static final String SELECTED =
+      "jsonb_set(c.jsonb, '{selectedBy}', "
+          + "COALESCE(c.jsonb->'selectedBy', '[]'::jsonb) || to_jsonb($2::text), TRUE)";
+
+  private static final String UNSELECTED =
+      "jsonb_set(c.jsonb, '{selectedBy}', (c.jsonb->'selectedBy') - $2::text, TRUE)";
+
+  private static final String COUNT_SQL = "SELECT count(*) FROM %s WHERE %s";
+
+  private static final String DEFER_SELECTED_STATE_SQL =
+      "SET LOCAL finc.defer_selected_state = 'on'";
+
+  private static final String UPDATE_SELECTED_STATE_SQL =
+      "SELECT %s.update_selected_state(id) FROM unnest($1::text[]) AS id";
+
+  @Override
+  public Future<SelectionChunk> selectChunk(
+      List<String> mdSourceIds,
+      String isil,
+      boolean select,
+      int chunkSize,
+      SelectionChunk previous,
+      Context vertxContext) {
+    String schema = PostgresClient.convertToPsqlStandard(Constants.MODULE_TENANT);
+    String sql =
+        String.format(
+            CHUNK,
+            schema + "." + TABLE_NAME,
+            select ? TO_SELECT : TO_UNSELECT,
+            previous == null ? "" : AFTER,
+            select ? SELECTED : UNSELECTED);
+    Tuple params =
+        previous == null
+            ? Tuple.of(toArray(mdSourceIds), isil, chunkSize)
+            : Tuple.of(
+                toArray(mdSourceIds),
+                isil,
+                chunkSize,
+                previous.getLastMdSourceId(),
+                UUID.fromString(previous.getLastId()));
+
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .withTrans(
+            conn ->
+                conn.execute(DEFER_SELECTED_STATE_SQL)
+                    .compose(v -> conn.execute(sql, params))
+                    .map(MetadataSourceSelectionDAOImpl::toChunk))
+        .recover(
+            throwable ->
+                Future.failedFuture(
+                    "Cannot (un)select collections of metadata sources " + mdSourceIds + ": "
+                        + throwable));
+  }
+
+  @Override
+  public Future<Void> updateSelectedState(List<String> mdSourceIds, Context vertxContext) {
+    String schema = PostgresClient.convertToPsqlStandard(Constants.MODULE_TENANT);
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .execute(String.format(UPDATE_SELECTED_STATE_SQL, schema), Tuple.of(toArray(mdSourceIds)))
+        .<Void>mapEmpty()
+        .recover(
+            throwable ->
+                Future.failedFuture(
+                    "Cannot update selected state of metadata sources " + mdSourceIds + ": "
+                        + throwable));
+  }
+
+  @Override
+  public Future<Integer> count(
+      List<String> mdSourceIds, String isil, boolean select, Context vertxContext) {
+    String schema = PostgresClient.convertToPsqlStandard(Constants.MODULE_TENANT);
+    String sql =
+        String.format(COUNT_SQL, schema + "." + TABLE_NAME, select ? TO_SELECT : TO_UNSELECT);
+
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .execute(sql, Tuple.of(toArray(mdSourceIds), isil))
+        .map(rows -> rows.iterator().next().getLong(0).intValue())
+        .recover(
+            throwable ->
+                Future.failedFuture(
+                    "Cannot count collections of metadata sources " + mdSourceIds + ": "
+                        + throwable));
+  }
+
+  private static SelectionChunk toChunk(RowSet<Row> rows) {
+    if (rows.size() == 0) {
+      return new SelectionChunk().withChanged(0);
+    }
+    Row row = rows.iterator().next();
+    return new SelectionChunk()
+        .withChanged(row.getLong("changed").intValue())
+        .withLastMdSourceId(row.getString("md_source_id"))
+        .withLastId(row.getUUID("id").toString());
+  }
+
+  private static String[] toArray(List<String> mdSourceIds) {
+    return mdSourceIds.toArray(new String[0]);
+  }
+}
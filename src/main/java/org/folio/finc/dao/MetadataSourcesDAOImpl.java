@@ -12,7 +12,6 @@ import org.folio.rest.jaxrs.model.Contact;
 import org.folio.rest.jaxrs.model.Contacts;
 import org.folio.rest.jaxrs.model.FincConfigMetadataSource;
 import org.folio.rest.jaxrs.model.FincConfigMetadataSources;
-import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.Criteria.Limit;
 import org.folio.rest.persist.Criteria.Offset;
 import org.folio.rest.persist.PgExceptionUtil;
@@ -20,6 +19,7 @@ import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.utils.Constants;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -28,7 +28,9 @@ public class MetadataSourcesDAOImpl implements MetadataSourcesDAO {
   private static final Logger logger = LogManager.getLogger(MetadataSourcesDAOImpl.class);
 
   private static final String TABLE_NAME = "metadata_sources";
-  private static final String TABLE_NAME_CONTACTS = "metadata_sources_contacts";
+  // Table maintained by triggers on metadata_sources, see metadata_sources_contacts.sql
+  private static final String CONTACTS_SQL =
+      "SELECT jsonb FROM %s.metadata_sources_contacts ORDER BY name";
 
   private CQLWrapper getCQL(String query, int limit, int offset) throws FieldException {
     CQL2PgJSON cql2PgJSON =
@@ -102,25 +104,17 @@ public class MetadataSourcesDAOImpl implements MetadataSourcesDAO {
 
   @Override
   public Future<Contacts> getContacts(Context vertxContext) {
-    Promise<Contacts> result = Promise.promise();
-
-    PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
-        .get(
-            TABLE_NAME_CONTACTS,
-            Contact.class,
-            new Criterion(),
-            true,
-            reply -> {
-              if (reply.succeeded()) {
-                List<Contact> results = reply.result().getResults();
-                Contacts contacts = new Contacts();
-                contacts.setContacts(results);
-                contacts.setTotalRecords(results.size());
-                result.complete(contacts);
-              } else {
-                result.fail(reply.cause());
-              }
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .execute(String.format(CONTACTS_SQL, schema()))
+        .map(
+            rows -> {
+              List<Contact> results = new ArrayList<>(rows.size());
+              rows.forEach(row -> results.add(row.getJsonObject("jsonb").mapTo(Contact.class)));
+              return new Contacts().withContacts(results).withTotalRecords(results.size());
             });
-    return result.future();
+  }
+
+  private static String schema() {
+    return PostgresClient.convertToPsqlStandard(Constants.MODULE_TENANT);
   }
 }
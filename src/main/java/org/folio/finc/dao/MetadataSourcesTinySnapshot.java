@@ -0,0 +1,140 @@
+package org.folio.finc.dao;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.Json;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.folio.rest.jaxrs.model.TinyMetadataSources;
+import org.folio.rest.utils.ConfigUtils;
+import org.folio.rest.utils.ETags;
+
+/**
+ * Immutable snapshot of all tiny metadata sources, shared by all requests of a module instance.
+ * The snapshot is rebuilt lazily after {@link #invalidate()}, which is called on every write of a
+ * metadata source. Writes of other module instances are not noticed, so a snapshot is rebuilt at
+ * the latest after the setting {@value #MAX_AGE} (milliseconds).
+ */
+public class MetadataSourcesTinySnapshot {
+
+  public static final String MAX_AGE = "finc.tinyMetadataSources.maxAge";
+
+  private static final Map<Vertx, MetadataSourcesTinySnapshot> instances = new WeakHashMap<>();
+  private static final long LOADING = -1;
+
+  private final MetadataSourcesTinyDAO metadataSourcesTinyDAO;
+  private final long maxAgeMillis;
+  private Future<Snapshot> current;
+  // time the load of current completed, LOADING while it is loaded
+  private long loadedAt;
+
+  MetadataSourcesTinySnapshot(MetadataSourcesTinyDAO metadataSourcesTinyDAO, long maxAgeMillis) {
+    this.metadataSourcesTinyDAO = metadataSourcesTinyDAO;
+    this.maxAgeMillis = maxAgeMillis;
+  }
+
+  /**
+   * Returns the snapshot owned by the given {@link Vertx}, creating it on first use.
+   *
+   * @param vertx The module's vertx
+   * @return The snapshot
+   */
+  public static MetadataSourcesTinySnapshot getInstance(Vertx vertx) {
+    synchronized (instances) {
+      return instances.computeIfAbsent(
+          vertx,
+          v ->
+              new MetadataSourcesTinySnapshot(
+                  new MetadataSourcesTinyDAOImpl(), ConfigUtils.getInt(MAX_AGE, 60000)));
+    }
+  }
+
+  /**
+   * Returns the current snapshot, loading it from the database if there is none or it is too old.
+   * Concurrent requests share one load. The age of a snapshot counts from the completion of its
+   * load, a snapshot invalidated while it is loaded is not kept.
+   *
+   * @param vertxContext The vertx context
+   * @return The snapshot
+   */
+  public synchronized Future<Snapshot> get(Context vertxContext) {
+    if (current != null
+        && (loadedAt == LOADING || System.currentTimeMillis() - loadedAt <= maxAgeMillis)) {
+      return current;
+    }
+    Future<Snapshot> loading = metadataSourcesTinyDAO.getAll(vertxContext).map(Snapshot::new);
+    current = loading;
+    loadedAt = LOADING;
+    loading.onComplete(
+        ar -> {
+          synchronized (this) {
+            if (current != loading) {
+              // invalidated or replaced during the load
+              return;
+            }
+            if (ar.succeeded()) {
+              loadedAt = System.currentTimeMillis();
+            } else {
+              current = null;
+            }
+          }
+        });
+    return loading;
+  }
+
+  /** Discards the current snapshot, the next request loads a new one. */
+  public synchronized void invalidate() {
+    current = null;
+  }
+
+  /** Tiny metadata sources together with the ETag of their JSON representation */
+  public static class Snapshot {
+
+    private final TinyMetadataSources sources;
+    private final String etag;
+
+    Snapshot(TinyMetadataSources sources) {
+      sources.setTinyMetadataSources(
+          Collections.unmodifiableList(sources.getTinyMetadataSources()));
+      this.sources = sources;
+      this.etag = etag(Json.encode(sources));
+    }
+
+    /** The tiny metadata sources, must not be modified */
+    public TinyMetadataSources getSources() {
+      return sources;
+    }
+
+    /** Strong ETag, equal for equal content on all module instances */
+    public String getEtag() {
+      return etag;
+    }
+
+    /**
+     * @param ifNoneMatch Value of the If-None-Match header, may be null
+     * @return True if the client already has this snapshot
+     */
+    public boolean matches(String ifNoneMatch) {
+      return ETags.matches(ifNoneMatch, etag);
+    }
+
+    private static String etag(String json) {
+      try {
+        byte[] digest =
+            MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+        StringBuilder etag = new StringBuilder("\"");
+        for (int i = 0; i < 16; i++) {
+          etag.append(String.format("%02x", digest[i]));
+        }
+        return etag.append('"').toString();
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
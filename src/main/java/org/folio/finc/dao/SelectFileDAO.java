@@ -2,13 +2,33 @@ package org.folio.finc.dao;
 
 import io.vertx.core.Context;
 import io.vertx.core.Future;
+import java.util.function.Supplier;
+import org.folio.finc.model.ContentInfo;
 import org.folio.finc.model.File;
+import org.folio.finc.model.StoredContent;
+import org.folio.rest.jaxrs.model.FileInfo;
+import org.folio.rest.utils.ByteRange;
 
 public interface SelectFileDAO {
 
   Future<File> getById(String id, String isil, Context vertxContext);
 
+  Future<ContentInfo> getContentInfo(String id, String isil, Context vertxContext);
+
+  Future<FileInfo> getInfo(String id, String isil, Context vertxContext);
+
+  Future<StoredContent> getContent(
+      String id, String isil, ByteRange.Request range, Context vertxContext);
+
   Future<File> upsert(File entity, String id, Context vertxContext);
 
+  /** Upserts a file whose content is only read if no content with the same digest is stored */
+  Future<File> upsert(
+      File entity,
+      String id,
+      String digest,
+      Supplier<Future<byte[]>> content,
+      Context vertxContext);
+
   Future<Integer> deleteById(String id, String isil, Context vertxContext);
 }
@@ -3,10 +3,15 @@ package org.folio.finc.dao;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import java.util.function.Supplier;
+import org.folio.finc.model.ContentInfo;
 import org.folio.finc.model.File;
+import org.folio.finc.model.StoredContent;
+import org.folio.rest.jaxrs.model.FileInfo;
 import org.folio.rest.persist.Criteria.Criteria;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.utils.ByteRange;
 import org.folio.rest.utils.Constants;
 
 public class SelectFileDAOImpl implements SelectFileDAO {
@@ -17,8 +22,33 @@ public class SelectFileDAOImpl implements SelectFileDAO {
 
   @Override
   public Future<File> getById(String id, String isil, Context vertxContext) {
-    Criterion criterion = getCriterion(id, isil);
-    return fileDAO.getByCriterion(criterion, vertxContext);
+    return fileDAO.getByIdAndIsil(id, isil, vertxContext);
+  }
+
+  @Override
+  public Future<ContentInfo> getContentInfo(String id, String isil, Context vertxContext) {
+    // a tenant without isil has no files, FileDAO would not restrict by isil
+    if (isil == null) {
+      return Future.succeededFuture();
+    }
+    return fileDAO.getContentInfo(id, isil, vertxContext);
+  }
+
+  @Override
+  public Future<FileInfo> getInfo(String id, String isil, Context vertxContext) {
+    if (isil == null) {
+      return Future.succeededFuture();
+    }
+    return fileDAO.getInfo(id, isil, vertxContext);
+  }
+
+  @Override
+  public Future<StoredContent> getContent(
+      String id, String isil, ByteRange.Request range, Context vertxContext) {
+    if (isil == null) {
+      return Future.succeededFuture();
+    }
+    return fileDAO.getContent(id, isil, range, vertxContext);
   }
 
   @Override
@@ -26,6 +56,16 @@ public class SelectFileDAOImpl implements SelectFileDAO {
     return fileDAO.upsert(entity, id, vertxContext);
   }
 
+  @Override
+  public Future<File> upsert(
+      File entity,
+      String id,
+      String digest,
+      Supplier<Future<byte[]>> content,
+      Context vertxContext) {
+    return fileDAO.upsert(entity, id, digest, content, vertxContext);
+  }
+
   @Override
   public Future<Integer> deleteById(String id, String isil, Context vertxContext) {
     Promise<Integer> result = Promise.promise();
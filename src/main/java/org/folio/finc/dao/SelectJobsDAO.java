@@ -0,0 +1,16 @@
+package org.folio.finc.dao;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import org.folio.rest.jaxrs.model.SelectJob;
+
+public interface SelectJobsDAO {
+
+  Future<SelectJob> getById(String id, Context vertxContext);
+
+  Future<SelectJob> getLatest(String metadataSourceId, String isil, Context vertxContext);
+
+  Future<SelectJob> save(SelectJob entity, Context vertxContext);
+
+  Future<SelectJob> update(SelectJob entity, Context vertxContext);
+}
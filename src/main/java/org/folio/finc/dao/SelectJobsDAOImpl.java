@@ -0,0 +1,115 @@
+package org.folio.finc.dao;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.rest.jaxrs.model.SelectJob;
+import org.folio.rest.persist.Criteria.Limit;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.cql.CQLWrapper;
+import org.folio.rest.utils.Constants;
+import org.folio.util.StringUtil;
+
+public class SelectJobsDAOImpl implements SelectJobsDAO {
+
+  private static final String TABLE_NAME = "select_jobs";
+
+  @Override
+  public Future<SelectJob> getById(String id, Context vertxContext) {
+    Promise<SelectJob> result = Promise.promise();
+    PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .getById(
+            TABLE_NAME,
+            id,
+            SelectJob.class,
+            ar -> {
+              if (ar.succeeded()) {
+                result.complete(ar.result());
+              } else {
+                result.fail("Cannot get select job by id. " + ar.cause());
+              }
+            });
+    return result.future();
+  }
+
+  @Override
+  public Future<SelectJob> getLatest(
+      String metadataSourceId, String isil, Context vertxContext) {
+    Promise<SelectJob> result = Promise.promise();
+    // cqlEncode quotes the values and masks CQL special characters
+    String query =
+        String.format(
+            "metadataSourceId==%s and isil==%s sortBy submitDate/sort.descending",
+            StringUtil.cqlEncode(metadataSourceId), StringUtil.cqlEncode(isil));
+
+    CQLWrapper cql;
+    try {
+      CQL2PgJSON cql2PgJSON = new CQL2PgJSON(Arrays.asList(TABLE_NAME + ".jsonb"));
+      cql = new CQLWrapper(cql2PgJSON, query).setLimit(new Limit(1));
+    } catch (FieldException e) {
+      return Future.failedFuture(e);
+    }
+
+    PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .get(
+            TABLE_NAME,
+            SelectJob.class,
+            new String[] {"*"},
+            cql,
+            false,
+            false,
+            ar -> {
+              if (ar.succeeded()) {
+                List<SelectJob> jobs = ar.result().getResults();
+                result.complete(jobs.isEmpty() ? null : jobs.get(0));
+              } else {
+                result.fail("Cannot get select jobs. " + ar.cause());
+              }
+            });
+    return result.future();
+  }
+
+  @Override
+  public Future<SelectJob> save(SelectJob entity, Context vertxContext) {
+    Promise<SelectJob> result = Promise.promise();
+    if (entity.getId() == null) {
+      entity.setId(UUID.randomUUID().toString());
+    }
+    PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .save(
+            TABLE_NAME,
+            entity.getId(),
+            entity,
+            ar -> {
+              if (ar.succeeded()) {
+                result.complete(entity);
+              } else {
+                result.fail("Cannot save select job: " + ar.cause());
+              }
+            });
+    return result.future();
+  }
+
+  @Override
+  public Future<SelectJob> update(SelectJob entity, Context vertxContext) {
+    Promise<SelectJob> result = Promise.promise();
+    PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .update(
+            TABLE_NAME,
+            entity,
+            entity.getId(),
+            ar -> {
+              if (ar.succeeded()) {
+                result.complete(entity);
+              } else {
+                result.fail("Cannot update select job: " + ar.cause());
+              }
+            });
+    return result.future();
+  }
+}
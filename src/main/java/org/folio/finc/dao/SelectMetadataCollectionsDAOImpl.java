@@ -7,21 +7,32 @@ import java.util.List;
 import org.folio.finc.select.transform.Transformer;
 import org.folio.finc.select.transform.MetadataCollectionTransformer;
 import org.folio.finc.select.query.MetadataCollectionsQueryTranslator;
+import org.folio.finc.select.query.MetadataCollectionsQueryTranslator.Translation;
+import org.folio.finc.select.query.QueryMode;
 import org.folio.rest.jaxrs.model.FincConfigMetadataCollection;
+import org.folio.rest.jaxrs.model.FincConfigMetadataCollections;
 import org.folio.rest.jaxrs.model.FincSelectMetadataCollection;
 import org.folio.rest.jaxrs.model.FincSelectMetadataCollections;
 
 public class SelectMetadataCollectionsDAOImpl implements SelectMetadataCollectionsDAO {
 
+  private static final String CQL_ALL_RECORDS = "cql.allRecords=1";
+
   private final Transformer<FincSelectMetadataCollection, FincConfigMetadataCollection> transformer;
   private final MetadataCollectionsDAO metadataCollectionsDAO;
   private final MetadataCollectionsQueryTranslator queryTranslator;
+  private final QueryMode queryMode;
 
   public SelectMetadataCollectionsDAOImpl() {
+    this(QueryMode.fromConfig());
+  }
+
+  public SelectMetadataCollectionsDAOImpl(QueryMode queryMode) {
     super();
     this.transformer = new MetadataCollectionTransformer();
     this.metadataCollectionsDAO = new MetadataCollectionsDAOImpl();
     this.queryTranslator = new MetadataCollectionsQueryTranslator();
+    this.queryMode = queryMode;
   }
 
   @Override
@@ -29,9 +40,7 @@ public class SelectMetadataCollectionsDAOImpl implements SelectMetadataCollectio
       String query, int offset, int limit, String isil, Context vertxContext) {
 
     Promise<FincSelectMetadataCollections> result = Promise.promise();
-    query = queryTranslator.translateQuery(query, isil);
-    metadataCollectionsDAO
-        .getAll(query, offset, limit, vertxContext)
+    getFincConfigCollections(query, offset, limit, isil, vertxContext)
         .onComplete(
             ar -> {
               if (ar.succeeded()) {
@@ -56,6 +65,39 @@ public class SelectMetadataCollectionsDAOImpl implements SelectMetadataCollectio
     return result.future();
   }
 
+  /**
+   * Depending on the query mode, queries for the selected resp. permitted state are answered with
+   * the collection selections table or jsonb containment, all other queries with the translated
+   * CQL query only.
+   */
+  private Future<FincConfigMetadataCollections> getFincConfigCollections(
+      String query, int offset, int limit, String isil, Context vertxContext) {
+    Translation translation =
+        queryMode == QueryMode.CQL
+            ? null
+            : queryTranslator.translateQueryWithYesNoQueries(
+                query, isil, queryMode == QueryMode.JSONB);
+    if (translation == null
+        || (translation.getSelected() == null && translation.getPermitted() == null)) {
+      return metadataCollectionsDAO.getAll(
+          queryTranslator.translateQuery(query, isil), offset, limit, vertxContext);
+    }
+    String[] queryAndSortBy = queryTranslator.splitSortBy(translation.getQuery());
+    String cql =
+        queryAndSortBy[0].trim().isEmpty()
+            ? CQL_ALL_RECORDS + queryAndSortBy[1]
+            : translation.getQuery();
+    return metadataCollectionsDAO.getAll(
+        cql,
+        translation.getSelected(),
+        translation.getPermitted(),
+        queryMode,
+        isil,
+        offset,
+        limit,
+        vertxContext);
+  }
+
   @Override
   public Future<FincSelectMetadataCollection> getById(
       String id, String isil, Context vertxContext) {
@@ -0,0 +1,14 @@
+package org.folio.finc.dao;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import org.folio.rest.jaxrs.model.SelectedStateStatus;
+
+public interface SelectedStateQueueDAO {
+
+  Future<Void> setAsync(boolean async, Context vertxContext);
+
+  Future<Integer> drain(int batchSize, Context vertxContext);
+
+  Future<SelectedStateStatus> getStatus(Context vertxContext);
+}
@@ -0,0 +1,82 @@
+package org.folio.finc.dao;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+import java.time.OffsetDateTime;
+import java.util.Date;
+import org.folio.rest.jaxrs.model.SelectedStateStatus;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.utils.Constants;
+
+/**
+ * Accesses the queue of counter deltas of metadata sources whose selected state needs to be
+ * recomputed, see selected_state_queue.sql.
+ */
+public class SelectedStateQueueDAOImpl implements SelectedStateQueueDAO {
+
+  private static final String SET_ASYNC_SQL = "UPDATE %s.selected_state_settings SET async = $1";
+
+  private static final String DRAIN_SQL = "SELECT %s.drain_selected_state_queue($1) AS drained";
+
+  private static final String STATUS_SQL =
+      "SELECT s.async, s.last_drained_at, q.queued, q.oldest_queued_at, "
+          + "COALESCE(EXTRACT(EPOCH FROM now() - q.oldest_queued_at), 0)::bigint AS lag_seconds "
+          + "FROM %1$s.selected_state_settings AS s, "
+          + "(SELECT count(DISTINCT md_source_id) AS queued, min(queued_at) AS oldest_queued_at "
+          + "FROM %1$s.selected_state_queue) AS q";
+
+  @Override
+  public Future<Void> setAsync(boolean async, Context vertxContext) {
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .execute(String.format(SET_ASYNC_SQL, schema()), Tuple.of(async))
+        .<Void>mapEmpty()
+        .recover(
+            throwable ->
+                Future.failedFuture("Cannot set selected state recomputation mode: " + throwable));
+  }
+
+  /**
+   * Applies the queued deltas and recomputes the selected state of at most batchSize queued
+   * metadata sources in one transaction.
+   *
+   * @return Number of metadata sources taken from the queue
+   */
+  @Override
+  public Future<Integer> drain(int batchSize, Context vertxContext) {
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .execute(String.format(DRAIN_SQL, schema()), Tuple.of(batchSize))
+        .map(rows -> rows.iterator().next().getInteger("drained"))
+        .recover(
+            throwable ->
+                Future.failedFuture("Cannot drain selected state queue: " + throwable));
+  }
+
+  @Override
+  public Future<SelectedStateStatus> getStatus(Context vertxContext) {
+    return PostgresClient.getInstance(vertxContext.owner(), Constants.MODULE_TENANT)
+        .execute(String.format(STATUS_SQL, schema()))
+        .map(rows -> toStatus(rows.iterator().next()))
+        .recover(
+            throwable ->
+                Future.failedFuture("Cannot get selected state status: " + throwable));
+  }
+
+  private static SelectedStateStatus toStatus(Row row) {
+    return new SelectedStateStatus()
+        .withAsync(row.getBoolean("async"))
+        .withQueued(row.getLong("queued").intValue())
+        .withOldestQueuedDate(toDate(row.getOffsetDateTime("oldest_queued_at")))
+        .withLagSeconds(row.getLong("lag_seconds").intValue())
+        .withLastDrainDate(toDate(row.getOffsetDateTime("last_drained_at")));
+  }
+
+  private static Date toDate(OffsetDateTime dateTime) {
+    return dateTime == null ? null : Date.from(dateTime.toInstant());
+  }
+
+  private static String schema() {
+    return PostgresClient.convertToPsqlStandard(Constants.MODULE_TENANT);
+  }
+}
@@ -0,0 +1,51 @@
+package org.folio.finc.model;
+
+/** Length, encoding and digest of the stored content of a file */
+public class ContentInfo {
+
+  private long length;
+  private String encoding;
+  private String digest;
+
+  /** Length of the decoded content in bytes */
+  public long getLength() {
+    return length;
+  }
+
+  public void setLength(long length) {
+    this.length = length;
+  }
+
+  public ContentInfo withLength(long length) {
+    this.length = length;
+    return this;
+  }
+
+  /** Encoding of the stored content, e.g. gzip, or null if it is stored as is */
+  public String getEncoding() {
+    return encoding;
+  }
+
+  public void setEncoding(String encoding) {
+    this.encoding = encoding;
+  }
+
+  public ContentInfo withEncoding(String encoding) {
+    this.encoding = encoding;
+    return this;
+  }
+
+  /** {@link org.folio.rest.utils.ContentDigest} of the decoded content */
+  public String getDigest() {
+    return digest;
+  }
+
+  public void setDigest(String digest) {
+    this.digest = digest;
+  }
+
+  public ContentInfo withDigest(String digest) {
+    this.digest = digest;
+    return this;
+  }
+}
@@ -1,13 +1,21 @@
 package org.folio.finc.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import javax.validation.constraints.NotNull;
 
+/**
+ * A file. The jsonb of the files table only holds its metadata, the files table references its
+ * content by the column digest. The content is stored once per SHA-256 digest in file_contents,
+ * shared and reference counted by all files with that digest.
+ */
 @JsonInclude(JsonInclude.Include.NON_NULL)
-@JsonPropertyOrder({"id", "isil", "data"})
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder({"id", "isil"})
 public class File {
 
   /** (Required) */
@@ -20,10 +28,9 @@ public class File {
   @JsonPropertyDescription("Isil of library using this filter")
   private String isil;
 
-  /** Isil of library using this filter */
-  @JsonProperty("data")
-  @JsonPropertyDescription("The stored data")
-  private String data;
+  /** The stored content, not part of the jsonb */
+  @JsonIgnore
+  private byte[] content;
 
   /** (Required) */
   @JsonProperty("id")
@@ -59,20 +66,20 @@ public class File {
     return this;
   }
 
-  /** The data */
-  @JsonProperty("data")
-  public String getData() {
-    return data;
+  /** The stored content */
+  @JsonIgnore
+  public byte[] getContent() {
+    return content;
   }
 
-  /** Isil of library using this filter */
-  @JsonProperty("data")
-  public void setData(String data) {
-    this.data = data;
+  /** The stored content */
+  @JsonIgnore
+  public void setContent(byte[] content) {
+    this.content = content;
   }
 
-  public File withData(String data) {
-    this.data = data;
+  public File withContent(byte[] content) {
+    this.content = content;
     return this;
   }
 }
@@ -0,0 +1,55 @@
+package org.folio.finc.model;
+
+/**
+ * Result of (un)selecting one chunk of metadata collections, see {@link
+ * org.folio.finc.dao.MetadataSourceSelectionDAO#selectChunk}. The last collection of the chunk is
+ * the position the next chunk continues after.
+ */
+public class SelectionChunk {
+
+  private int changed;
+  private String lastMdSourceId;
+  private String lastId;
+
+  /** Number of metadata collections that changed */
+  public int getChanged() {
+    return changed;
+  }
+
+  public void setChanged(int changed) {
+    this.changed = changed;
+  }
+
+  public SelectionChunk withChanged(int changed) {
+    this.changed = changed;
+    return this;
+  }
+
+  /** ID of the metadata source of the last metadata collection of the chunk */
+  public String getLastMdSourceId() {
+    return lastMdSourceId;
+  }
+
+  public void setLastMdSourceId(String lastMdSourceId) {
+    this.lastMdSourceId = lastMdSourceId;
+  }
+
+  public SelectionChunk withLastMdSourceId(String lastMdSourceId) {
+    this.lastMdSourceId = lastMdSourceId;
+    return this;
+  }
+
+  /** ID of the last metadata collection of the chunk */
+  public String getLastId() {
+    return lastId;
+  }
+
+  public void setLastId(String lastId) {
+    this.lastId = lastId;
+  }
+
+  public SelectionChunk withLastId(String lastId) {
+    this.lastId = lastId;
+    return this;
+  }
+}
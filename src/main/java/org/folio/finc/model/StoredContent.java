@@ -0,0 +1,39 @@
+package org.folio.finc.model;
+
+/** Content of a file as read for a download, see {@link org.folio.finc.dao.FileDAO#getContent} */
+public class StoredContent {
+
+  private ContentInfo info;
+  private byte[] bytes;
+
+  /** Length, encoding and digest of the content */
+  public ContentInfo getInfo() {
+    return info;
+  }
+
+  public void setInfo(ContentInfo info) {
+    this.info = info;
+  }
+
+  public StoredContent withInfo(ContentInfo info) {
+    this.info = info;
+    return this;
+  }
+
+  /**
+   * The content as stored. If it is stored without encoding, only the requested range of it, else
+   * all of it.
+   */
+  public byte[] getBytes() {
+    return bytes;
+  }
+
+  public void setBytes(byte[] bytes) {
+    this.bytes = bytes;
+  }
+
+  public StoredContent withBytes(byte[] bytes) {
+    this.bytes = bytes;
+    return this;
+  }
+}
@@ -162,9 +162,8 @@ public class EZBHarvestVerticle extends AbstractVerticle {
    * @return
    */
   private Future<File> insertEZBFile(String ezbFile, String isil) {
-    String base64Data = Base64.getEncoder().encodeToString(ezbFile.getBytes());
     String uuid = UUID.randomUUID().toString();
-    File file = new File().withData(base64Data).withId(uuid).withIsil(isil);
+    File file = new File().withContent(ezbFile.getBytes()).withId(uuid).withIsil(isil);
     return selectFileDAO.upsert(file, uuid, vertx.getOrCreateContext());
   }
 
@@ -229,9 +228,7 @@ public class EZBHarvestVerticle extends AbstractVerticle {
       log.info("Will update ezb file. Old file not found.");
       return Collections.singletonList(ezbFileIdInDB);
     } else {
-      String fromDBAsBase64 = fileFromDB.getData();
-      String ezbAsBase64 = Base64.getEncoder().encodeToString(ezbFileContent.getBytes());
-      if (fromDBAsBase64.equals(ezbAsBase64)) {
+      if (Arrays.equals(fileFromDB.getContent(), ezbFileContent.getBytes())) {
         log.info("Will not update ezb file. Content of new and old file is equal.");
         return Collections.emptyList();
       } else {
@@ -2,23 +2,19 @@ package org.folio.finc.select;
 
 import io.vertx.core.Context;
 import io.vertx.core.Future;
-import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import org.folio.finc.dao.IsilDAO;
 import org.folio.finc.dao.IsilDAOImpl;
 import org.folio.finc.dao.MetadataCollectionsDAO;
 import org.folio.finc.dao.MetadataCollectionsDAOImpl;
 import org.folio.finc.select.exception.FincSelectNotPermittedException;
-import org.folio.okapi.common.GenericCompositeFuture;
 import org.folio.rest.RestVerticle;
-import org.folio.rest.jaxrs.model.FincConfigMetadataCollection;
-import org.folio.rest.jaxrs.model.FincConfigMetadataCollection.UsageRestricted;
+import org.folio.rest.jaxrs.model.CollectionsSelect;
+import org.folio.rest.jaxrs.model.CollectionsSelectResults;
 import org.folio.rest.jaxrs.model.Select;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.tools.utils.TenantTool;
 
-import java.util.Arrays;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -35,27 +31,12 @@ public class SelectMetadataCollectionsHelper {
     this.metadataCollectionsDAO = new MetadataCollectionsDAOImpl();
   }
 
-  private static FincConfigMetadataCollection setSelectStatus(
-      FincConfigMetadataCollection metadataCollection, Select select, String isil) {
-    List<String> permittedFor = metadataCollection.getPermittedFor();
-    UsageRestricted usageRestricted = metadataCollection.getUsageRestricted();
-    boolean isPermitted = usageRestricted.equals(UsageRestricted.NO) || permittedFor.contains(isil);
-
-    if (!isPermitted) {
-      throw new FincSelectNotPermittedException(
-          "Selecting this metadata collection is not permitted");
-    }
-
-    List<String> selectedBy = metadataCollection.getSelectedBy();
-    boolean doSelect = select.getSelect();
-    if (doSelect && !selectedBy.contains(isil)) {
-      selectedBy.add(isil);
-    } else if (!doSelect) {
-      selectedBy.remove(isil);
-    }
-    return metadataCollection.withSelectedBy(selectedBy);
-  }
-
+  /**
+   * Selects resp. unselects the metadata collection for the isil of the requesting tenant.
+   *
+   * @return true if the metadata collection has been (un)selected, false if it does not exist.
+   *     Fails with {@link FincSelectNotPermittedException} if it is not permitted for the isil.
+   */
   public Future<Boolean> selectMetadataCollection(
       String mdCollectionId,
       Select selectEntity,
@@ -65,51 +46,35 @@ public class SelectMetadataCollectionsHelper {
     String tenantId =
         TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
 
-    Promise<Boolean> result = Promise.promise();
-    doSelect(selectEntity, mdCollectionId, tenantId, vertxContext)
+    return isilDAO
+        .getIsilForTenant(tenantId, vertxContext)
         .compose(
-            metadataCollection ->
-                this.metadataCollectionsDAO.update(
-                    metadataCollection, mdCollectionId, vertxContext))
-        .onComplete(
-            ar -> {
-              if (ar.succeeded()) {
-                result.complete(true);
-              } else {
-                result.fail(ar.cause());
-              }
-            });
-    return result.future();
+            isil ->
+                metadataCollectionsDAO.select(
+                    mdCollectionId, isil, selectEntity.getSelect(), vertxContext))
+        .map(metadataCollection -> metadataCollection != null);
   }
 
-  private Future<FincConfigMetadataCollection> doSelect(
-      Select selectEntity, String id, String tenantId, Context vertxContext) {
-    Future<String> isilFuture = isilDAO.getIsilForTenant(tenantId, vertxContext);
-    Future<FincConfigMetadataCollection> metadataCollectionFuture =
-        metadataCollectionsDAO.getById(id, vertxContext);
+  /**
+   * Selects resp. unselects several metadata collections for the isil of the requesting tenant.
+   * Collections that are not permitted or do not exist are reported per id.
+   */
+  public Future<CollectionsSelectResults> selectMetadataCollections(
+      CollectionsSelect entity, Map<String, String> okapiHeaders, Context vertxContext) {
 
-    Promise<FincConfigMetadataCollection> result = Promise.promise();
-    GenericCompositeFuture.all(Arrays.asList(isilFuture, metadataCollectionFuture))
-        .onComplete(
-            ar -> {
-              if (ar.succeeded()) {
-                String isil = isilFuture.result();
-                FincConfigMetadataCollection fincConfigMetadataCollection =
-                    metadataCollectionFuture.result();
-                FincConfigMetadataCollection updatedMDCollection;
-                try {
-                  updatedMDCollection =
-                      setSelectStatus(fincConfigMetadataCollection, selectEntity, isil);
-                } catch (FincSelectNotPermittedException e) {
-                  result.fail(e);
-                  return;
-                }
-                result.complete(updatedMDCollection);
+    String tenantId =
+        TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
 
-              } else {
-                result.fail("Cannot (un)select metadata collection. " + ar.cause());
-              }
-            });
-    return result.future();
+    return isilDAO
+        .getIsilForTenant(tenantId, vertxContext)
+        .compose(
+            isil ->
+                metadataCollectionsDAO.selectBatch(
+                    entity.getCollectionIds(), isil, entity.getSelect(), vertxContext))
+        .map(
+            results ->
+                new CollectionsSelectResults()
+                    .withResults(results)
+                    .withTotalRecords(results.size()));
   }
 }
@@ -4,22 +4,41 @@ import io.vertx.core.*;
 import io.vertx.core.json.JsonObject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.folio.finc.dao.IsilDAO;
+import org.folio.finc.dao.IsilDAOImpl;
+import org.folio.finc.dao.SelectJobsDAO;
+import org.folio.finc.dao.SelectJobsDAOImpl;
+import org.folio.finc.select.exception.FincSelectJobRejectedException;
+import org.folio.finc.select.job.SelectJobCoalescer;
+import org.folio.finc.select.job.SelectJobCoalescer.Submission;
+import org.folio.finc.select.job.SelectJobExecutor;
 import org.folio.finc.select.verticles.AbstractSelectMetadataSourceVerticle;
 import org.folio.finc.select.verticles.factory.SelectMetadataSourceVerticleFactory;
 import org.folio.rest.RestVerticle;
+import org.folio.rest.jaxrs.model.BulkSelect;
 import org.folio.rest.jaxrs.model.Select;
+import org.folio.rest.jaxrs.model.SelectJob;
+import org.folio.rest.jaxrs.model.SelectJob.State;
+import org.folio.rest.jaxrs.resource.FincSelectMetadataSources.GetFincSelectMetadataSourcesBulkSelectByJobIdResponse;
+import org.folio.rest.jaxrs.resource.FincSelectMetadataSources.GetFincSelectMetadataSourcesCollectionsSelectAllByIdResponse;
+import org.folio.rest.jaxrs.resource.FincSelectMetadataSources.PutFincSelectMetadataSourcesBulkSelectResponse;
 import org.folio.rest.jaxrs.resource.FincSelectMetadataSources.PutFincSelectMetadataSourcesCollectionsSelectAllByIdResponse;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.tools.utils.TenantTool;
 
-import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.Map;
 
 /** Helper class to select/unselect metadata sources for finc-select. */
 public class SelectMetadataSourcesHelper {
   private final Logger logger = LogManager.getLogger(SelectMetadataSourcesHelper.class);
 
+  private final IsilDAO isilDAO = new IsilDAOImpl();
+  private final SelectJobsDAO selectJobsDAO = new SelectJobsDAOImpl();
+
   public SelectMetadataSourcesHelper(Vertx vertx, String tenantId) {
     PostgresClient.getInstance(vertx);
   }
@@ -30,52 +49,281 @@ public class SelectMetadataSourcesHelper {
       Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
-    try {
-      vertxContext.runOnContext(
-          v -> {
-            String tenantId =
-                TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
-            String msg =
-                String.format(
-                    "Will (un)select metadata collections of metadata source %s for tenant %s.",
-                    metadataSourceID, tenantId);
-            logger.info(msg);
-            deploySelectSourceVerticle(
-                vertxContext.owner(), metadataSourceID, tenantId, selectEntity);
-            String result = new JsonObject().put("message", msg).toString();
-            asyncResultHandler.handle(
-                Future.succeededFuture(
-                    Response.ok(result, MediaType.APPLICATION_JSON_TYPE).build()));
-          });
-    } catch (Exception e) {
+    String tenantId =
+        TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
+    isilDAO
+        .getIsilForTenant(tenantId, vertxContext)
+        .onComplete(
+            ar -> {
+              if (ar.failed()) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        PutFincSelectMetadataSourcesCollectionsSelectAllByIdResponse
+                            .respond500WithTextPlain(ar.cause())));
+              } else if (ar.result() == null) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        PutFincSelectMetadataSourcesCollectionsSelectAllByIdResponse
+                            .respond400WithTextPlain("Cannot find isil for tenant " + tenantId)));
+              } else {
+                submitJob(
+                    metadataSourceID,
+                    tenantId,
+                    ar.result(),
+                    selectEntity,
+                    asyncResultHandler,
+                    vertxContext);
+              }
+            });
+  }
+
+  /** Responds with the most recent select job of the metadata source for the tenant's isil. */
+  public void getSelectAllJob(
+      String metadataSourceID,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    String tenantId =
+        TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
+    isilDAO
+        .getIsilForTenant(tenantId, vertxContext)
+        .compose(isil -> selectJobsDAO.getLatest(metadataSourceID, isil, vertxContext))
+        .onComplete(
+            ar -> {
+              if (ar.failed()) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincSelectMetadataSourcesCollectionsSelectAllByIdResponse
+                            .respond500WithTextPlain(ar.cause())));
+              } else if (ar.result() == null) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincSelectMetadataSourcesCollectionsSelectAllByIdResponse
+                            .respond404WithTextPlain(
+                                "No select job found for metadata source " + metadataSourceID)));
+              } else {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincSelectMetadataSourcesCollectionsSelectAllByIdResponse
+                            .respond200WithApplicationJson(ar.result())));
+              }
+            });
+  }
+
+  /**
+   * Selects resp. unselects all collections of several metadata sources with a single job. Bulk
+   * select jobs are not coalesced, they are submitted to the {@link SelectJobExecutor} directly.
+   */
+  public void bulkSelect(
+      BulkSelect entity,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    String tenantId =
+        TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
+    Vertx vertx = vertxContext.owner();
+    isilDAO
+        .getIsilForTenant(tenantId, vertxContext)
+        .onComplete(
+            ar -> {
+              if (ar.failed()) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        PutFincSelectMetadataSourcesBulkSelectResponse.respond500WithTextPlain(
+                            ar.cause())));
+                return;
+              }
+              if (ar.result() == null) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        PutFincSelectMetadataSourcesBulkSelectResponse.respond400WithTextPlain(
+                            "Cannot find isil for tenant " + tenantId)));
+                return;
+              }
+              SelectJob job =
+                  new SelectJob()
+                      .withMetadataSourceIds(
+                          new ArrayList<>(new LinkedHashSet<>(entity.getMetadataSourceIds())))
+                      .withIsil(ar.result())
+                      .withSelect(entity.getSelect())
+                      .withState(State.QUEUED)
+                      .withSubmitDate(new Date());
+              selectJobsDAO
+                  .save(job, vertxContext)
+                  .onComplete(
+                      saved -> {
+                        if (saved.failed()) {
+                          asyncResultHandler.handle(
+                              Future.succeededFuture(
+                                  PutFincSelectMetadataSourcesBulkSelectResponse
+                                      .respond500WithTextPlain(saved.cause())));
+                          return;
+                        }
+                        Future<Void> execution =
+                            SelectJobExecutor.getInstance(vertx)
+                                .submit(() -> deploySelectSourceVerticle(vertx, tenantId, job));
+                        if (execution.failed()
+                            && execution.cause() instanceof FincSelectJobRejectedException) {
+                          logger.warn(execution.cause().getMessage());
+                          selectJobsDAO.update(
+                              job.withState(State.FAILED)
+                                  .withEndDate(new Date())
+                                  .withErrorCause(execution.cause().getMessage()),
+                              vertxContext);
+                          asyncResultHandler.handle(
+                              Future.succeededFuture(
+                                  PutFincSelectMetadataSourcesBulkSelectResponse
+                                      .respond503WithTextPlain(execution.cause().getMessage())));
+                          return;
+                        }
+                        logger.info(
+                            "Will (un)select metadata collections of {} metadata sources for"
+                                + " tenant {} with job {}.",
+                            job.getMetadataSourceIds().size(),
+                            tenantId,
+                            job.getId());
+                        asyncResultHandler.handle(
+                            Future.succeededFuture(
+                                PutFincSelectMetadataSourcesBulkSelectResponse
+                                    .respond200WithApplicationJson(job)));
+                      });
+            });
+  }
+
+  /** Responds with the bulk select job if it belongs to the tenant's isil. */
+  public void getBulkSelectJob(
+      String jobId,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    String tenantId =
+        TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
+    isilDAO
+        .getIsilForTenant(tenantId, vertxContext)
+        .compose(
+            isil ->
+                selectJobsDAO
+                    .getById(jobId, vertxContext)
+                    .map(
+                        job ->
+                            job != null
+                                    && job.getIsil().equals(isil)
+                                    && !job.getMetadataSourceIds().isEmpty()
+                                ? job
+                                : null))
+        .onComplete(
+            ar -> {
+              if (ar.failed()) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincSelectMetadataSourcesBulkSelectByJobIdResponse
+                            .respond500WithTextPlain(ar.cause())));
+              } else if (ar.result() == null) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincSelectMetadataSourcesBulkSelectByJobIdResponse
+                            .respond404WithTextPlain("Bulk select job not found: " + jobId)));
+              } else {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincSelectMetadataSourcesBulkSelectByJobIdResponse
+                            .respond200WithApplicationJson(ar.result())));
+              }
+            });
+  }
+
+  /**
+   * Submits a new select job to the {@link SelectJobCoalescer}. Requests that can be served by a
+   * running resp. queued job of the same metadata source and isil are attached to that job. Other
+   * jobs are submitted to the {@link SelectJobExecutor} when they start. Responds with the job
+   * serving the request resp. with 503 if the executor rejects it.
+   */
+  private void submitJob(
+      String metadataSourceID,
+      String tenantId,
+      String isil,
+      Select selectEntity,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    SelectJob job =
+        new SelectJob()
+            .withMetadataSourceId(metadataSourceID)
+            .withIsil(isil)
+            .withSelect(selectEntity.getSelect())
+            .withState(State.QUEUED)
+            .withSubmitDate(new Date());
+
+    Vertx vertx = vertxContext.owner();
+    Submission submission =
+        SelectJobCoalescer.getInstance(vertx)
+            .submit(job, next -> deploySelectSourceVerticle(vertx, tenantId, next), vertxContext);
+    if (!submission.isCreated()) {
+      logger.info(
+          "Attached request to select job {} of metadata source {} for tenant {}.",
+          submission.getJob().getId(),
+          metadataSourceID,
+          tenantId);
+    }
+
+    Future<Void> execution = submission.getExecution();
+    if (execution.failed() && execution.cause() instanceof FincSelectJobRejectedException) {
       asyncResultHandler.handle(
           Future.succeededFuture(
-              PutFincSelectMetadataSourcesCollectionsSelectAllByIdResponse.respond500WithTextPlain(
-                  e.getCause())));
+              PutFincSelectMetadataSourcesCollectionsSelectAllByIdResponse
+                  .respond503WithTextPlain(execution.cause().getMessage())));
+      return;
     }
+
+    submission
+        .getSaved()
+        .onComplete(
+            ar -> {
+              if (ar.succeeded()) {
+                logger.info(
+                    "Will (un)select metadata collections of metadata source {} for tenant {}"
+                        + " with job {}.",
+                    metadataSourceID,
+                    tenantId,
+                    ar.result().getId());
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        PutFincSelectMetadataSourcesCollectionsSelectAllByIdResponse
+                            .respond200WithApplicationJson(ar.result())));
+              } else {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        PutFincSelectMetadataSourcesCollectionsSelectAllByIdResponse
+                            .respond500WithTextPlain(ar.cause())));
+              }
+            });
   }
 
-  private void deploySelectSourceVerticle(
-      Vertx vertx, String metadataSourceId, String tenantId, Select select) {
+  /**
+   * Deploys a select resp. unselect verticle on the module's vertx. The verticle is undeployed
+   * again after it has processed all collections.
+   *
+   * @return Future that completes when the verticle has finished
+   */
+  private Future<Void> deploySelectSourceVerticle(Vertx vertx, String tenantId, SelectJob job) {
 
+    Select select = new Select().withSelect(job.getSelect());
     AbstractSelectMetadataSourceVerticle verticle =
         SelectMetadataSourceVerticleFactory.create(vertx, vertx.getOrCreateContext(), select);
 
-    vertx = Vertx.vertx();
-    JsonObject cfg = vertx.getOrCreateContext().config();
-    cfg.put("tenantId", tenantId);
-    cfg.put("metadataSourceId", metadataSourceId);
-    vertx.deployVerticle(
-        verticle,
-        new DeploymentOptions().setConfig(cfg),
-        stringAsyncResult -> {
-          if (stringAsyncResult.failed()) {
-            logger.error(
-                String.format(
-                    "Failed to deploy SelectVerticle for metadata source %s and for tenant %s: %s",
-                    metadataSourceId, tenantId, stringAsyncResult.cause().getMessage()),
-                stringAsyncResult.cause());
-          }
-        });
+    JsonObject cfg =
+        new JsonObject()
+            .put("tenantId", tenantId)
+            .put("metadataSourceId", job.getMetadataSourceId())
+            .put("jobId", job.getId());
+    return vertx
+        .deployVerticle(verticle, new DeploymentOptions().setConfig(cfg))
+        .compose(vertx::undeploy)
+        .onFailure(
+            throwable ->
+                logger.error(
+                    String.format(
+                        "Failed to run SelectVerticle for select job %s and for tenant %s: %s",
+                        job.getId(), tenantId, throwable.getMessage()),
+                    throwable));
   }
 }
@@ -0,0 +1,8 @@
+package org.folio.finc.select.exception;
+
+public class FincSelectJobRejectedException extends RuntimeException {
+
+  public FincSelectJobRejectedException(String cause) {
+    super(cause);
+  }
+}
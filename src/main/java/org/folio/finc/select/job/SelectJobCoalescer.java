@@ -0,0 +1,246 @@
+package org.folio.finc.select.job;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.finc.dao.SelectJobsDAO;
+import org.folio.finc.dao.SelectJobsDAOImpl;
+import org.folio.finc.select.exception.FincSelectJobRejectedException;
+import org.folio.rest.jaxrs.model.SelectJob;
+import org.folio.rest.jaxrs.model.SelectJob.State;
+
+/**
+ * Coalesces select all jobs per metadata source and isil. Per pair there is at most one running
+ * and one pending job:
+ *
+ * <ul>
+ *   <li>A request with the same direction as the pending resp. running job is attached to it.
+ *   <li>A request with the opposite direction of the pending job supersedes it.
+ *   <li>A request with the opposite direction of the running job becomes the pending job and runs
+ *       after the running job has finished.
+ * </ul>
+ *
+ * A job is submitted to the {@link SelectJobExecutor} when it starts, so a pending job does not
+ * occupy one of its slots while waiting for the running job. Coalescing happens per module
+ * instance.
+ */
+public class SelectJobCoalescer {
+
+  private static final Logger logger = LogManager.getLogger(SelectJobCoalescer.class);
+  private static final Map<Vertx, SelectJobCoalescer> instances = new WeakHashMap<>();
+
+  private final SelectJobsDAO selectJobsDAO;
+  private final SelectJobExecutor executor;
+  private final Map<String, Slot> slots = new HashMap<>();
+
+  SelectJobCoalescer(SelectJobsDAO selectJobsDAO, SelectJobExecutor executor) {
+    this.selectJobsDAO = selectJobsDAO;
+    this.executor = executor;
+  }
+
+  /**
+   * Returns the coalescer owned by the given {@link Vertx}, creating it on first use.
+   *
+   * @param vertx The module's vertx
+   * @return The coalescer
+   */
+  public static SelectJobCoalescer getInstance(Vertx vertx) {
+    synchronized (instances) {
+      return instances.computeIfAbsent(
+          vertx,
+          v -> new SelectJobCoalescer(new SelectJobsDAOImpl(), SelectJobExecutor.getInstance(v)));
+    }
+  }
+
+  /**
+   * Submits a new job. New and superseding jobs are persisted, superseded jobs are marked as such.
+   * A new job starts right away if no job of its metadata source and isil is running, else once the
+   * running job has finished. A job rejected by the {@link SelectJobExecutor} is marked as failed.
+   *
+   * @param job The requested job, not persisted yet
+   * @param runner Runs a job once it has been persisted
+   * @param vertxContext The vertx context
+   * @return The submission holding the job serving the request
+   */
+  public Submission submit(
+      SelectJob job, Function<SelectJob, Future<Void>> runner, Context vertxContext) {
+    if (job.getId() == null) {
+      job.setId(UUID.randomUUID().toString());
+    }
+    String key = key(job.getMetadataSourceId(), job.getIsil());
+    CoalescedJob created;
+    synchronized (this) {
+      Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+
+      if (slot.pending != null) {
+        if (slot.pending.job.getSelect().equals(job.getSelect())) {
+          return attach(slot.pending, vertxContext);
+        }
+        if (slot.running != null && slot.running.job.getSelect().equals(job.getSelect())) {
+          // the pending job would only revert the running one
+          supersede(slot.pending, slot.running.job, vertxContext);
+          slot.pending = null;
+          return attach(slot.running, vertxContext);
+        }
+        supersede(slot.pending, job, vertxContext);
+        slot.pending = null;
+      } else if (slot.running != null && slot.running.job.getSelect().equals(job.getSelect())) {
+        return attach(slot.running, vertxContext);
+      }
+      created = new CoalescedJob(job, selectJobsDAO.save(job, vertxContext), runner);
+      slot.pending = created;
+    }
+    start(key, vertxContext);
+    return new Submission(job, created.saved, true, created.finished.future());
+  }
+
+  /** Starts the pending job of the given key unless a job is running already */
+  private void start(String key, Context vertxContext) {
+    CoalescedJob next;
+    synchronized (this) {
+      Slot slot = slots.get(key);
+      if (slot == null || slot.running != null) {
+        return;
+      }
+      if (slot.pending == null) {
+        slots.remove(key);
+        return;
+      }
+      next = slot.pending;
+      slot.pending = null;
+      slot.running = next;
+    }
+    executor
+        .submit(() -> next.saved.compose(next.runner))
+        .onComplete(
+            ar -> {
+              if (ar.failed() && ar.cause() instanceof FincSelectJobRejectedException) {
+                logger.warn(ar.cause().getMessage());
+                fail(next, ar.cause().getMessage(), vertxContext);
+              }
+              synchronized (this) {
+                slots.get(key).running = null;
+              }
+              next.finished.handle(ar);
+              start(key, vertxContext);
+            });
+  }
+
+  /** Attaches a request to the given job, serving the job as currently persisted */
+  private Submission attach(CoalescedJob coalescedJob, Context vertxContext) {
+    Future<SelectJob> persisted =
+        coalescedJob.saved.compose(
+            saved ->
+                selectJobsDAO
+                    .getById(saved.getId(), vertxContext)
+                    .map(job -> job == null ? saved : job));
+    return new Submission(coalescedJob.job, persisted, false, coalescedJob.finished.future());
+  }
+
+  private void fail(CoalescedJob failed, String cause, Context vertxContext) {
+    failed
+        .saved
+        .compose(
+            job ->
+                selectJobsDAO.update(
+                    job.withState(State.FAILED).withEndDate(new Date()).withErrorCause(cause),
+                    vertxContext))
+        .onFailure(
+            throwable ->
+                logger.error(
+                    "Cannot mark select job {} as failed: {}",
+                    failed.job.getId(),
+                    throwable.getMessage()));
+  }
+
+  private void supersede(CoalescedJob superseded, SelectJob by, Context vertxContext) {
+    superseded.finished.tryComplete();
+    superseded
+        .saved
+        .compose(
+            job ->
+                selectJobsDAO.update(
+                    job.withState(State.SUPERSEDED)
+                        .withEndDate(new Date())
+                        .withSupersededBy(by.getId()),
+                    vertxContext))
+        .onFailure(
+            throwable ->
+                logger.error(
+                    "Cannot mark select job {} as superseded: {}",
+                    superseded.job.getId(),
+                    throwable.getMessage()));
+  }
+
+  private static String key(String metadataSourceId, String isil) {
+    return metadataSourceId + "|" + isil;
+  }
+
+  /** Job the request is served by */
+  public static class Submission {
+
+    private final SelectJob job;
+    private final Future<SelectJob> saved;
+    private final boolean created;
+    private final Future<Void> execution;
+
+    Submission(SelectJob job, Future<SelectJob> saved, boolean created, Future<Void> execution) {
+      this.job = job;
+      this.saved = saved;
+      this.created = created;
+      this.execution = execution;
+    }
+
+    public SelectJob getJob() {
+      return job;
+    }
+
+    /** Completes with the job as persisted */
+    public Future<SelectJob> getSaved() {
+      return saved;
+    }
+
+    /** True if the request created a new job, false if it was attached to an existing one */
+    public boolean isCreated() {
+      return created;
+    }
+
+    /**
+     * Completes when the job has finished. Fails with a {@link FincSelectJobRejectedException}
+     * right away if the job was started and rejected by the {@link SelectJobExecutor}.
+     */
+    public Future<Void> getExecution() {
+      return execution;
+    }
+  }
+
+  private static class CoalescedJob {
+
+    private final SelectJob job;
+    private final Future<SelectJob> saved;
+    private final Function<SelectJob, Future<Void>> runner;
+    private final Promise<Void> finished = Promise.promise();
+
+    CoalescedJob(
+        SelectJob job, Future<SelectJob> saved, Function<SelectJob, Future<Void>> runner) {
+      this.job = job;
+      this.saved = saved;
+      this.runner = runner;
+    }
+  }
+
+  private static class Slot {
+
+    private CoalescedJob pending;
+    private CoalescedJob running;
+  }
+}
@@ -0,0 +1,130 @@
+package org.folio.finc.select.job;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.finc.select.exception.FincSelectJobRejectedException;
+import org.folio.rest.utils.ConfigUtils;
+
+/**
+ * Runs select all jobs on the module's {@link Vertx}. At most {@code maxConcurrentJobs} jobs run at
+ * the same time, further jobs wait in a queue holding at most {@code maxQueuedJobs} entries. If the
+ * queue is full, new jobs are rejected with a {@link FincSelectJobRejectedException}.
+ */
+public class SelectJobExecutor {
+
+  public static final String MAX_CONCURRENT_JOBS = "finc.select.maxConcurrentJobs";
+  public static final String MAX_QUEUED_JOBS = "finc.select.maxQueuedJobs";
+
+  private static final Logger logger = LogManager.getLogger(SelectJobExecutor.class);
+  private static final Map<Vertx, SelectJobExecutor> instances = new WeakHashMap<>();
+
+  private final int maxConcurrentJobs;
+  private final int maxQueuedJobs;
+  private final Deque<Supplier<Future<Void>>> queue = new ArrayDeque<>();
+  private int running = 0;
+
+  SelectJobExecutor(int maxConcurrentJobs, int maxQueuedJobs) {
+    if (maxConcurrentJobs < 1 || maxQueuedJobs < 0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid limits for select jobs: %s concurrent, %s queued",
+              maxConcurrentJobs, maxQueuedJobs));
+    }
+    this.maxConcurrentJobs = maxConcurrentJobs;
+    this.maxQueuedJobs = maxQueuedJobs;
+  }
+
+  /**
+   * Returns the executor owned by the given {@link Vertx}, creating it on first use.
+   *
+   * @param vertx The module's vertx
+   * @return The executor
+   */
+  public static SelectJobExecutor getInstance(Vertx vertx) {
+    synchronized (instances) {
+      return instances.computeIfAbsent(
+          vertx,
+          v ->
+              new SelectJobExecutor(
+                  ConfigUtils.getInt(MAX_CONCURRENT_JOBS, 2),
+                  ConfigUtils.getInt(MAX_QUEUED_JOBS, 20)));
+    }
+  }
+
+  /**
+   * Submits a job. The job is started immediately if a slot is free, else it is queued.
+   *
+   * @param job Supplier starting the job
+   * @return Future that completes when the job has finished, or fails with a {@link
+   *     FincSelectJobRejectedException} if the queue is full
+   */
+  public <T> Future<T> submit(Supplier<Future<T>> job) {
+    Promise<T> result = Promise.promise();
+    Supplier<Future<Void>> queuedJob =
+        () -> {
+          Future<T> future;
+          try {
+            future = job.get();
+          } catch (Exception e) {
+            future = Future.failedFuture(e);
+          }
+          return future.onComplete(result).mapEmpty();
+        };
+    synchronized (this) {
+      if (running < maxConcurrentJobs) {
+        running++;
+      } else if (queue.size() < maxQueuedJobs) {
+        queue.addLast(queuedJob);
+        return result.future();
+      } else {
+        return Future.failedFuture(
+            new FincSelectJobRejectedException(
+                String.format(
+                    "Too many select jobs. %s running, %s queued. Try again later.",
+                    running, queue.size())));
+      }
+    }
+    run(queuedJob);
+    return result.future();
+  }
+
+  public synchronized int getRunning() {
+    return running;
+  }
+
+  public synchronized int getQueued() {
+    return queue.size();
+  }
+
+  private void run(Supplier<Future<Void>> queuedJob) {
+    queuedJob
+        .get()
+        .onComplete(
+            ar -> {
+              if (ar.failed()) {
+                logger.error("Select job failed: {}", ar.cause().getMessage(), ar.cause());
+              }
+              runNext();
+            });
+  }
+
+  private void runNext() {
+    Supplier<Future<Void>> next;
+    synchronized (this) {
+      next = queue.pollFirst();
+      if (next == null) {
+        running--;
+        return;
+      }
+    }
+    run(next);
+  }
+}
@@ -29,12 +29,7 @@ public class MetadataCollectionsQueryTranslator extends QueryTranslator {
       return query;
     }
 
-    Pattern pattern =
-        Pattern.compile(
-            key
-                + "=\\(?(\")?(?<first>[Yy][Ee][Ss]|[Nn][Oo])(\")?(\\s?(?<second>[Aa][Nn][Dd]|[Oo][Rr])\\s?(\")?(?<third>[Yy][Ee][Ss]|[Nn][Oo])(\")?)?\\)?",
-            Pattern.CASE_INSENSITIVE);
-    Matcher matcher = pattern.matcher(query);
+    Matcher matcher = yesNoPattern(key).matcher(query);
     if (matcher.find()) {
       String firstYesNo = matcher.group("first");
       String multiValAndOr = matcher.group("second");
@@ -65,4 +60,79 @@ public class MetadataCollectionsQueryTranslator extends QueryTranslator {
     }
     return "(" + query + ")";
   }
+
+  /**
+   * Translates the query like {@link #translateQuery(String, String)}, but leaves out the part
+   * querying the selected state and, if requested, the part querying the permitted state. These
+   * parts are returned as {@link YesNoQuery} instead.
+   *
+   * @param query The finc-select query
+   * @param isil The isil of the tenant
+   * @param withPermitted If the permitted part is left out, too
+   * @return The translation
+   */
+  public Translation translateQueryWithYesNoQueries(
+      String query, String isil, boolean withPermitted) {
+    YesNoQuery[] yesNoQueries = new YesNoQuery[2];
+    String translated =
+        translateQuery(
+            query,
+            isil,
+            (selectedQuery, i) -> {
+              yesNoQueries[0] = toYesNoQuery(selectedQuery, SELECTED);
+              return yesNoQueries[0] == null ? processSelectedQuery(selectedQuery, i) : "";
+            },
+            (permittedQuery, i) -> {
+              yesNoQueries[1] = withPermitted ? toYesNoQuery(permittedQuery, PERMITTED) : null;
+              return yesNoQueries[1] == null ? processPermittedQuery(permittedQuery, i) : "";
+            });
+    return new Translation(translated, yesNoQueries[0], yesNoQueries[1]);
+  }
+
+  private YesNoQuery toYesNoQuery(String query, String key) {
+    Matcher matcher = yesNoPattern(key).matcher(prepareQuery(query));
+    if (!matcher.find()) {
+      return null;
+    }
+    String multiValAndOr = matcher.group("second");
+    return new YesNoQuery(
+        YES.equals(matcher.group("first")),
+        multiValAndOr == null ? null : multiValAndOr.toUpperCase(),
+        YES.equals(matcher.group("third")));
+  }
+
+  private static Pattern yesNoPattern(String key) {
+    return Pattern.compile(
+        key
+            + "=\\(?(\")?(?<first>[Yy][Ee][Ss]|[Nn][Oo])(\")?(\\s?(?<second>[Aa][Nn][Dd]|[Oo][Rr])\\s?(\")?(?<third>[Yy][Ee][Ss]|[Nn][Oo])(\")?)?\\)?",
+        Pattern.CASE_INSENSITIVE);
+  }
+
+  /** CQL query without the selected resp. permitted part and the queries replacing them */
+  public static class Translation {
+
+    private final String query;
+    private final YesNoQuery selected;
+    private final YesNoQuery permitted;
+
+    Translation(String query, YesNoQuery selected, YesNoQuery permitted) {
+      this.query = query;
+      this.selected = selected;
+      this.permitted = permitted;
+    }
+
+    public String getQuery() {
+      return query;
+    }
+
+    /** The selected part, null if the query does not contain it */
+    public YesNoQuery getSelected() {
+      return selected;
+    }
+
+    /** The permitted part, null if the query does not contain it or it was not left out */
+    public YesNoQuery getPermitted() {
+      return permitted;
+    }
+  }
 }
@@ -0,0 +1,32 @@
+package org.folio.finc.select.query;
+
+import java.util.Locale;
+import org.folio.rest.utils.ConfigUtils;
+
+/**
+ * How finc-select queries for the selected resp. permitted state of metadata collections are
+ * answered. Set with the setting "finc.select.queryMode", its value is case insensitive. Defaults
+ * to {@link #CQL}, the mode the module used before the setting was introduced.
+ */
+public enum QueryMode {
+  /** Wildcard CQL matches on selectedBy and permittedFor */
+  CQL,
+  /** Selected state from the collection selections table, permitted state as CQL */
+  SELECTIONS,
+  /** jsonb containment on selectedBy and permittedFor, backed by jsonb_path_ops GIN indexes */
+  JSONB;
+
+  public static final String QUERY_MODE = "finc.select.queryMode";
+
+  public static QueryMode fromConfig() {
+    String value = ConfigUtils.getString(QUERY_MODE, CQL.name());
+    try {
+      return valueOf(value.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Setting %s must be one of cql, selections, jsonb but is '%s'", QUERY_MODE, value),
+          e);
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.folio.finc.select.query;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.function.BinaryOperator;
 import java.util.function.UnaryOperator;
 import org.folio.finc.select.exception.FincSelectInvalidQueryException;
 
@@ -16,11 +17,29 @@ import org.folio.finc.select.exception.FincSelectInvalidQueryException;
  */
 public abstract class QueryTranslator {
 
-  private static final String PERMITTED = "permitted";
-  private static final String SELECTED = "selected";
+  static final String PERMITTED = "permitted";
+  static final String SELECTED = "selected";
   private static final String AND = "AND";
 
   public String translateQuery(String query, String isil) {
+    return translateQuery(query, isil, this::processSelectedQuery, this::processPermittedQuery);
+  }
+
+  /**
+   * Translates the query, using the given processors for the parts querying the selected resp.
+   * permitted state.
+   *
+   * @param query The finc-select query
+   * @param isil The isil of the tenant
+   * @param selectedQueryProcessor Translates the selected part of the query with the isil
+   * @param permittedQueryProcessor Translates the permitted part of the query with the isil
+   * @return The translated query
+   */
+  String translateQuery(
+      String query,
+      String isil,
+      BinaryOperator<String> selectedQueryProcessor,
+      BinaryOperator<String> permittedQueryProcessor) {
 
     if (query == null || "".equals(query)) {
       return query;
@@ -36,9 +55,9 @@ public abstract class QueryTranslator {
     String[] ands = query.split("[aA][nN][dD]");
     for (String s : ands) {
       if (s.contains(PERMITTED)) {
-        permitted = processPermittedQuery(s, isil);
+        permitted = permittedQueryProcessor.apply(s, isil);
       } else if (s.contains(SELECTED)) {
-        selected = processSelectedQuery(s, isil);
+        selected = selectedQueryProcessor.apply(s, isil);
       } else {
         String tmp = processRemainingQuery(s);
         sb.append(calculateAppendable(sb.toString(), tmp));
@@ -52,11 +71,11 @@ public abstract class QueryTranslator {
     return result;
   }
 
-  private String processSelectedQuery(String query, String isil) {
+  String processSelectedQuery(String query, String isil) {
     return doTranslate(query, SELECTED, isil, this::selectedBy);
   }
 
-  private String processPermittedQuery(String query, String isil) {
+  String processPermittedQuery(String query, String isil) {
     return doTranslate(query, PERMITTED, isil, this::permittedFor);
   }
 
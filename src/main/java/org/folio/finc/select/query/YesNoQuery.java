@@ -0,0 +1,33 @@
+package org.folio.finc.select.query;
+
+/**
+ * Parsed finc-select query for the selected resp. permitted state, e.g. 'selected=yes' or
+ * 'permitted=("yes" or "no")'.
+ */
+public class YesNoQuery {
+
+  private final boolean first;
+  private final String operator;
+  private final boolean second;
+
+  YesNoQuery(boolean first, String operator, boolean second) {
+    this.first = first;
+    this.operator = operator;
+    this.second = second;
+  }
+
+  /**
+   * Renders the query as SQL condition.
+   *
+   * @param yesCondition SQL condition for 'yes'
+   * @param noCondition SQL condition for 'no'
+   * @return The SQL condition
+   */
+  public String toSql(String yesCondition, String noCondition) {
+    String sql = first ? yesCondition : noCondition;
+    if (operator != null) {
+      sql += " " + operator + " " + (second ? yesCondition : noCondition);
+    }
+    return "(" + sql + ")";
+  }
+}
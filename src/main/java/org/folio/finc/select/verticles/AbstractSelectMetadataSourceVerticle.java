@@ -3,118 +3,217 @@ package org.folio.finc.select.verticles;
 import io.vertx.core.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.folio.okapi.common.GenericCompositeFuture;
-import org.folio.rest.jaxrs.model.FincConfigMetadataCollection;
+import org.folio.finc.dao.MetadataSourceSelectionDAO;
+import org.folio.finc.dao.MetadataSourceSelectionDAOImpl;
+import org.folio.finc.dao.SelectJobsDAO;
+import org.folio.finc.dao.SelectJobsDAOImpl;
+import org.folio.finc.model.SelectionChunk;
 import org.folio.rest.jaxrs.model.Isil;
+import org.folio.rest.jaxrs.model.SelectJob;
+import org.folio.rest.jaxrs.model.SelectJob.State;
 import org.folio.rest.persist.Criteria.Criteria;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.utils.ConfigUtils;
 import org.folio.rest.utils.Constants;
 
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 /**
  * {@link io.vertx.core.Verticle} to select resp. unselect all metadata collections of a single
  * metadata source. The actual behavior (select/unselect) is implemented by overriding the {@link
- * #select(List, String)} method.
+ * #doSelect()} method.
  */
 public abstract class AbstractSelectMetadataSourceVerticle extends AbstractVerticle {
 
   private static final Logger logger =
       LogManager.getLogger(AbstractSelectMetadataSourceVerticle.class);
 
-  private static final String METADATA_COLLECTIONS_TABLE = "metadata_collections";
+  public static final String CHUNK_SIZE = "finc.select.chunkSize";
+
   private static final String ISILS_TABLE = "isils";
 
+  private final MetadataSourceSelectionDAO metadataSourceSelectionDAO =
+      new MetadataSourceSelectionDAOImpl();
+  private final SelectJobsDAO selectJobsDAO = new SelectJobsDAOImpl();
+
   public AbstractSelectMetadataSourceVerticle(Vertx vertx, Context ctx) {
     super();
     super.init(vertx, ctx);
   }
 
+  /**
+   * Selects resp. unselects the collections of the configured metadata source. The start promise
+   * completes once all collections have been processed. If a job id is configured, the state and
+   * progress of that {@link SelectJob} is tracked.
+   */
   @Override
-  public void start() {
+  public void start(Promise<Void> startPromise) {
     String metadataSourceId = config().getString("metadataSourceId");
     String tenantId = config().getString("tenantId");
+    String jobId = config().getString("jobId");
     logger.info("Deployed AbstractSelectMetadataSourceVerticle");
     if (Boolean.TRUE.equals(config().getBoolean("testing", false))) {
       logger.info("TEST ENV");
+      startPromise.complete();
     } else {
-      selectAllCollections(metadataSourceId, tenantId);
+      Future<Integer> result =
+          jobId == null
+              ? selectAllCollections(metadataSourceId, tenantId)
+              : runJob(jobId);
+      result
+          .<Void>mapEmpty()
+          .onComplete(startPromise);
     }
   }
 
-  public Future<Void> selectAllCollections(String mdSourceId, String tenantId) {
-
-    return fetchIsil(tenantId)
-        .compose(isil -> fetchPermittedCollections(mdSourceId, isil))
-        .compose(metadataCollections -> doSelectAndSave(metadataCollections, tenantId))
-        .compose(compositeFuture -> updateSelectedBy(mdSourceId));
+  /**
+   * Selects resp. unselects all permitted metadata collections of the given metadata source for
+   * the isil of the given tenant.
+   *
+   * @param mdSourceId ID of metadata source
+   * @param tenantId ID of tenant
+   * @return Number of metadata collections that changed
+   */
+  public Future<Integer> selectAllCollections(String mdSourceId, String tenantId) {
+    return selectAllCollections(mdSourceId, tenantId, processed -> Future.succeededFuture());
   }
 
   /**
-   * Fetches {@link FincConfigMetadataCollection}s from the DB that are permitted. Permitted means
-   * usageRestricted is set to no or the isil is listed in the permittedFor array.
+   * Selects resp. unselects all permitted metadata collections of the given metadata source for
+   * the isil of the given tenant, reporting the progress after each full chunk.
    *
    * @param mdSourceId ID of metadata source
-   * @param isil The current isil
-   * @return
+   * @param tenantId ID of tenant
+   * @param onProgress Called with the number of processed collections after each full chunk
+   * @return Number of metadata collections that changed
    */
-  private Future<List<FincConfigMetadataCollection>> fetchPermittedCollections(
-      String mdSourceId, String isil) {
-
-    Promise<List<FincConfigMetadataCollection>> result = Promise.promise();
-    Criteria usageRestrictedCrit =
-        new Criteria().addField("'usageRestricted'").setJSONB(true).setOperation("=").setVal("no");
-    Criteria permittedForCrit =
-        new Criteria()
-            .addField("(jsonb->>'permittedFor')::jsonb")
-            .setJSONB(false)
-            .setOperation("?")
-            .setVal(isil);
-    Criteria mdSourceCrit =
-        new Criteria()
-            .addField("jsonb->'mdSource'->>'id'")
-            .setJSONB(false)
-            .setOperation("=")
-            .setVal(mdSourceId);
-    Criterion c =
-        new Criterion()
-            .addCriterion(usageRestrictedCrit, "OR", permittedForCrit)
-            .addCriterion(mdSourceCrit);
+  public Future<Integer> selectAllCollections(
+      String mdSourceId, String tenantId, Function<Integer, Future<Void>> onProgress) {
 
-    PostgresClient.getInstance(context.owner(), Constants.MODULE_TENANT)
-        .get(
-            METADATA_COLLECTIONS_TABLE,
-            FincConfigMetadataCollection.class,
-            c,
-            false,
-            false,
-            ar -> {
-              if (ar.succeeded()) {
-                result.complete(ar.result().getResults());
-              } else {
-                result.fail("Cannot fetch permitted collections: " + ar.cause());
+    return fetchIsil(tenantId)
+        .compose(
+            isil -> selectInChunks(Collections.singletonList(mdSourceId), isil, onProgress))
+        .onSuccess(
+            count ->
+                logger.info(
+                    "(Un)selected {} metadata collections of metadata source {} for tenant {}",
+                    count,
+                    mdSourceId,
+                    tenantId));
+  }
+
+  /**
+   * Runs the given select job: Marks it as running, (un)selects all collections of its metadata
+   * source resp. of all metadata sources of a bulk select job and marks it as completed resp.
+   * failed afterwards.
+   *
+   * @param jobId ID of the {@link SelectJob}
+   * @return Number of metadata collections that changed
+   */
+  private Future<Integer> runJob(String jobId) {
+    return selectJobsDAO
+        .getById(jobId, context)
+        .compose(
+            job -> {
+              if (job == null) {
+                return Future.failedFuture("Cannot find select job " + jobId);
               }
+              List<String> mdSourceIds =
+                  job.getMetadataSourceIds().isEmpty()
+                      ? Collections.singletonList(job.getMetadataSourceId())
+                      : job.getMetadataSourceIds();
+              return metadataSourceSelectionDAO
+                  .count(mdSourceIds, job.getIsil(), doSelect(), context)
+                  .compose(
+                      total ->
+                          selectJobsDAO.update(
+                              job.withState(State.RUNNING)
+                                  .withStartDate(new Date())
+                                  .withTotal(total)
+                                  .withProcessed(0),
+                              context))
+                  .compose(
+                      running ->
+                          selectInChunks(
+                              mdSourceIds,
+                              job.getIsil(),
+                              processed ->
+                                  selectJobsDAO
+                                      .update(job.withProcessed(processed), context)
+                                      .mapEmpty()))
+                  .compose(
+                      count ->
+                          selectJobsDAO
+                              .update(
+                                  job.withState(State.COMPLETED)
+                                      .withEndDate(new Date())
+                                      .withProcessed(count),
+                                  context)
+                              .map(count))
+                  .recover(
+                      throwable ->
+                          selectJobsDAO
+                              .update(
+                                  job.withState(State.FAILED)
+                                      .withEndDate(new Date())
+                                      .withErrorCause(throwable.getMessage()),
+                                  context)
+                              .compose(failed -> Future.failedFuture(throwable)));
             });
-
-    return result.future();
   }
 
-  private Future<CompositeFuture> doSelectAndSave(
-      List<FincConfigMetadataCollection> metadataCollections, String tenantId) {
+  /**
+   * (Un)selects the collections chunk by chunk, so that each transaction changes at most {@code
+   * chunkSize} collections. The selected state of each metadata source is recomputed once at the
+   * end, even if a chunk failed.
+   *
+   * @param mdSourceIds IDs of metadata sources
+   * @param isil The isil
+   * @param onProgress Called with the number of processed collections after each full chunk
+   * @return Number of metadata collections that changed
+   */
+  private Future<Integer> selectInChunks(
+      List<String> mdSourceIds, String isil, Function<Integer, Future<Void>> onProgress) {
+    int chunkSize = ConfigUtils.getInt(CHUNK_SIZE, 1000);
+    return selectRemaining(mdSourceIds, isil, chunkSize, null, 0, onProgress)
+        .eventually(v -> metadataSourceSelectionDAO.updateSelectedState(mdSourceIds, context));
+  }
 
-    return fetchIsil(tenantId)
+  /** (Un)selects the chunks following the previous chunk, or all chunks if previous is null */
+  private Future<Integer> selectRemaining(
+      List<String> mdSourceIds,
+      String isil,
+      int chunkSize,
+      SelectionChunk previous,
+      int processed,
+      Function<Integer, Future<Void>> onProgress) {
+    return metadataSourceSelectionDAO
+        .selectChunk(mdSourceIds, isil, doSelect(), chunkSize, previous, context)
         .compose(
-            isil -> {
-              List<FincConfigMetadataCollection> selected = select(metadataCollections, isil);
-              List<Future> futures = saveCollections(selected);
-              return GenericCompositeFuture.join(futures);
+            chunk -> {
+              int total = processed + chunk.getChanged();
+              if (chunk.getChanged() < chunkSize) {
+                return Future.succeededFuture(total);
+              }
+              return onProgress
+                  .apply(total)
+                  .compose(
+                      v ->
+                          selectRemaining(
+                              mdSourceIds, isil, chunkSize, chunk, total, onProgress));
             });
   }
 
-  abstract List<FincConfigMetadataCollection> select(
-      List<FincConfigMetadataCollection> metadataCollections, String isil);
+  /**
+   * Determines if the metadata collections will be selected resp. unselected
+   *
+   * @return true for select, false for unselect
+   */
+  abstract boolean doSelect();
 
   /**
    * Fetches the isil that is assigned to the tenant
@@ -151,41 +250,4 @@ public abstract class AbstractSelectMetadataSourceVerticle extends AbstractVerti
             });
     return result.future();
   }
-
-  private List<Future> saveCollections(List<FincConfigMetadataCollection> selected) {
-    return selected.stream().map(this::saveSingleCollection).collect(Collectors.toList());
-  }
-
-  private Future<Void> saveSingleCollection(FincConfigMetadataCollection metadataCollection) {
-    Promise<Void> result = Promise.promise();
-    PostgresClient.getInstance(context.owner(), Constants.MODULE_TENANT)
-        .update(
-            METADATA_COLLECTIONS_TABLE,
-            metadataCollection,
-            metadataCollection.getId(),
-            ar -> {
-              if (ar.succeeded()) {
-                result.complete();
-              } else {
-                result.fail("Cannot save md collection: " + ar.cause());
-              }
-            });
-    return result.future();
-  }
-
-  public Future<Void> updateSelectedBy(String mdSourceId) {
-    Promise<Void> result = Promise.promise();
-    String query = String.format("SELECT * FROM update_selected_state('%s')", mdSourceId);
-    PostgresClient.getInstance(context.owner(), Constants.MODULE_TENANT)
-        .select(
-            query,
-            ar -> {
-              if (ar.succeeded()) {
-                result.complete();
-              } else {
-                result.fail("Cannot update selectedBy. " + ar.cause());
-              }
-            });
-    return result.future();
-  }
 }
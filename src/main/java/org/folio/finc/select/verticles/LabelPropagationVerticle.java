@@ -0,0 +1,64 @@
+package org.folio.finc.select.verticles;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Future;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.finc.dao.LabelPropagationDAO;
+import org.folio.finc.dao.LabelPropagationDAOImpl;
+import org.folio.rest.utils.ConfigUtils;
+
+/**
+ * {@link io.vertx.core.Verticle} that propagates renamed metadata source labels to their
+ * collections in the background. Each batch of at most {@value #BATCH_SIZE} collections is written
+ * in its own transaction, so a rename of a large metadata source neither blocks the request nor
+ * holds locks on all of its collections.
+ */
+public class LabelPropagationVerticle extends AbstractVerticle {
+
+  public static final String INTERVAL = "finc.labelPropagation.interval";
+  public static final String BATCH_SIZE = "finc.labelPropagation.batchSize";
+
+  private static final Logger logger = LogManager.getLogger(LabelPropagationVerticle.class);
+
+  private final LabelPropagationDAO labelPropagationDAO;
+  private boolean propagating;
+
+  public LabelPropagationVerticle() {
+    this(new LabelPropagationDAOImpl());
+  }
+
+  LabelPropagationVerticle(LabelPropagationDAO labelPropagationDAO) {
+    super();
+    this.labelPropagationDAO = labelPropagationDAO;
+  }
+
+  @Override
+  public void start() {
+    int batchSize = ConfigUtils.getInt(BATCH_SIZE, 1000);
+    long interval = ConfigUtils.getInt(INTERVAL, 2000);
+    vertx.setPeriodic(interval, id -> tick(batchSize));
+  }
+
+  /** Skips the tick if the previous one is still propagating. */
+  private void tick(int batchSize) {
+    if (propagating) {
+      return;
+    }
+    propagating = true;
+    propagateAll(batchSize)
+        .onFailure(throwable -> logger.warn(throwable.getMessage()))
+        .onComplete(ar -> propagating = false);
+  }
+
+  /** Propagates batches until there is no pending propagation left */
+  Future<Void> propagateAll(int batchSize) {
+    return labelPropagationDAO
+        .propagate(batchSize, context)
+        .compose(
+            propagated ->
+                Boolean.TRUE.equals(propagated)
+                    ? propagateAll(batchSize)
+                    : Future.succeededFuture());
+  }
+}
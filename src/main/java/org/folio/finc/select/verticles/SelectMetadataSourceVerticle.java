@@ -2,9 +2,6 @@ package org.folio.finc.select.verticles;
 
 import io.vertx.core.Context;
 import io.vertx.core.Vertx;
-import java.util.List;
-import java.util.stream.Collectors;
-import org.folio.rest.jaxrs.model.FincConfigMetadataCollection;
 
 public class SelectMetadataSourceVerticle extends AbstractSelectMetadataSourceVerticle {
 
@@ -13,15 +10,7 @@ public class SelectMetadataSourceVerticle extends AbstractSelectMetadataSourceVe
   }
 
   @Override
-  List<FincConfigMetadataCollection> select(
-      List<FincConfigMetadataCollection> metadataCollections, String isil) {
-    return metadataCollections.stream()
-        .filter(metadataCollection -> !metadataCollection.getSelectedBy().contains(isil))
-        .map(
-            metadataCollection -> {
-              metadataCollection.getSelectedBy().add(isil);
-              return metadataCollection;
-            })
-        .collect(Collectors.toList());
+  boolean doSelect() {
+    return true;
   }
 }
@@ -0,0 +1,96 @@
+package org.folio.finc.select.verticles;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Future;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.finc.dao.SelectedStateQueueDAO;
+import org.folio.finc.dao.SelectedStateQueueDAOImpl;
+import org.folio.rest.utils.ConfigUtils;
+
+/**
+ * {@link io.vertx.core.Verticle} that recomputes the selected state of metadata sources in the
+ * background. If enabled by the setting {@value #ASYNC}, collection writes only queue the counter
+ * deltas of the affected metadata sources and this verticle drains the queue periodically in
+ * batches. If disabled, counters and selected state are updated synchronously again and the
+ * verticle drains what is left once.
+ *
+ * <p>The mode is stored in the database and shared by all instances of the module. An instance
+ * without the setting keeps the stored mode and drains the queue periodically, so it neither
+ * overrides the mode enabled by another instance nor leaves the queue of that mode unprocessed.
+ */
+public class SelectedStateQueueVerticle extends AbstractVerticle {
+
+  public static final String ASYNC = "finc.selectedState.async";
+  public static final String DRAIN_INTERVAL = "finc.selectedState.drainInterval";
+  public static final String BATCH_SIZE = "finc.selectedState.batchSize";
+
+  private static final Logger logger = LogManager.getLogger(SelectedStateQueueVerticle.class);
+
+  private final SelectedStateQueueDAO selectedStateQueueDAO;
+  private boolean enableAsync;
+  private boolean draining;
+
+  public SelectedStateQueueVerticle() {
+    this(new SelectedStateQueueDAOImpl());
+  }
+
+  SelectedStateQueueVerticle(SelectedStateQueueDAO selectedStateQueueDAO) {
+    super();
+    this.selectedStateQueueDAO = selectedStateQueueDAO;
+  }
+
+  @Override
+  public void start() {
+    int batchSize = ConfigUtils.getInt(BATCH_SIZE, 100);
+    long interval = ConfigUtils.getInt(DRAIN_INTERVAL, 5000);
+    if (ConfigUtils.getString(ASYNC, null) == null) {
+      logger.info("Setting {} not given, keeping the stored mode", ASYNC);
+      vertx.setPeriodic(interval, id -> tick(batchSize));
+      return;
+    }
+    if (!ConfigUtils.getBoolean(ASYNC, false)) {
+      selectedStateQueueDAO
+          .setAsync(false, context)
+          .compose(v -> drainAll(batchSize))
+          .onFailure(throwable -> logger.warn(throwable.getMessage()));
+      return;
+    }
+
+    logger.info("Recomputing selected state of metadata sources asynchronously");
+    enableAsync = true;
+    vertx.setPeriodic(interval, id -> tick(batchSize));
+  }
+
+  /**
+   * Enables the async mode once, the module tenant might not exist yet. Skips the tick if the
+   * previous one is still draining.
+   */
+  private void tick(int batchSize) {
+    if (draining) {
+      return;
+    }
+    draining = true;
+    Future<Void> enabled =
+        enableAsync
+            ? selectedStateQueueDAO.setAsync(true, context).onSuccess(v -> enableAsync = false)
+            : Future.succeededFuture();
+    enabled
+        .compose(v -> drainAll(batchSize))
+        .onFailure(throwable -> logger.warn(throwable.getMessage()))
+        .onComplete(ar -> draining = false);
+  }
+
+  /** Drains batches until a batch is not full anymore */
+  Future<Void> drainAll(int batchSize) {
+    return selectedStateQueueDAO
+        .drain(batchSize, context)
+        .compose(
+            drained -> {
+              if (drained > 0) {
+                logger.debug("Recomputed selected state of {} metadata sources", drained);
+              }
+              return drained < batchSize ? Future.succeededFuture() : drainAll(batchSize);
+            });
+  }
+}
@@ -4,18 +4,18 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
-import org.apache.commons.lang3.ArrayUtils;
 import org.folio.finc.dao.FileDAO;
 import org.folio.finc.dao.FileDAOImpl;
 import org.folio.finc.model.File;
 import org.folio.rest.annotations.Stream;
 import org.folio.rest.annotations.Validate;
+import org.folio.rest.jaxrs.model.FileUploadStatus;
 import org.folio.rest.jaxrs.resource.FincConfigFiles;
+import org.folio.rest.tools.utils.BinaryOutStream;
 import org.folio.rest.utils.Constants;
+import org.folio.rest.utils.FileUploads.FileTooLargeException;
 
 import javax.ws.rs.core.Response;
-import java.io.BufferedInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
 
@@ -28,8 +28,66 @@ public class FincConfigFilesAPI extends FincFileHandler implements FincConfigFil
 
   public static final String X_OKAPI_TENANT = "x-okapi-tenant";
 
+  private static final DownloadResponders DOWNLOAD_RESPONDERS =
+      new DownloadResponders() {
+        @Override
+        public Response ok(BinaryOutStream content, String etag, String contentEncoding) {
+          GetFincConfigFilesByIdResponse.HeadersFor200 headers =
+              GetFincConfigFilesByIdResponse.headersFor200()
+                  .withAcceptRanges("bytes")
+                  .withVary(VARY);
+          if (etag != null) {
+            headers.withETag(etag);
+          }
+          if (contentEncoding != null) {
+            headers.withContentEncoding(contentEncoding);
+          }
+          return GetFincConfigFilesByIdResponse.respond200WithApplicationOctetStream(
+              content, headers);
+        }
+
+        @Override
+        public Response partialContent(
+            BinaryOutStream content, String etag, String contentRange) {
+          GetFincConfigFilesByIdResponse.HeadersFor206 headers =
+              GetFincConfigFilesByIdResponse.headersFor206()
+                  .withAcceptRanges("bytes")
+                  .withContentRange(contentRange)
+                  .withVary(VARY);
+          if (etag != null) {
+            headers.withETag(etag);
+          }
+          return GetFincConfigFilesByIdResponse.respond206WithApplicationOctetStream(
+              content, headers);
+        }
+
+        @Override
+        public Response notModified(String etag) {
+          return GetFincConfigFilesByIdResponse.respond304(
+              GetFincConfigFilesByIdResponse.headersFor304().withETag(etag).withVary(VARY));
+        }
+
+        @Override
+        public Response rangeNotSatisfiable(String message, String contentRange) {
+          return GetFincConfigFilesByIdResponse.respond416WithTextPlain(
+              message,
+              GetFincConfigFilesByIdResponse.headersFor416()
+                  .withContentRange(contentRange)
+                  .withVary(VARY));
+        }
+
+        @Override
+        public Response notFound(String message) {
+          return GetFincConfigFilesByIdResponse.respond404WithTextPlain(message);
+        }
+
+        @Override
+        public Response error(Throwable throwable) {
+          return GetFincConfigFilesByIdResponse.respond500WithTextPlain(throwable);
+        }
+      };
+
   private final FileDAO fileDAO;
-  private Map<String, byte[]> requestedBytes = new HashMap<>();
 
   public FincConfigFilesAPI() {
     this.fileDAO = new FileDAOImpl();
@@ -52,21 +110,22 @@ public class FincConfigFilesAPI extends FincFileHandler implements FincConfigFil
       return;
     }
     String streamId = okapiHeaders.get(STREAM_ID);
-    try (InputStream bis = new BufferedInputStream(entity)) {
-      if (Objects.isNull(okapiHeaders.get(STREAM_COMPLETE))) {
-        processBytesArrayFromStream(bis, streamId);
-      } else if (Objects.nonNull(okapiHeaders.get(STREAM_ABORT))) {
-        asyncResultHandler.handle(
-            Future.succeededFuture(
-                PostFincConfigFilesResponse.respond400WithTextPlain("Stream aborted")));
-      } else {
-        // stream is completed
-        createFile(streamId, isil, okapiHeaders, asyncResultHandler, vertxContext);
-      }
-    } catch (IOException e) {
+    if (Objects.isNull(okapiHeaders.get(STREAM_COMPLETE))) {
+      appendUpload(streamId, entity, vertxContext)
+          .onFailure(
+              throwable ->
+                  asyncResultHandler.handle(
+                      Future.succeededFuture(
+                          PostFincConfigFilesResponse.respond500WithTextPlain(
+                              "Internal server error"))));
+    } else if (Objects.nonNull(okapiHeaders.get(STREAM_ABORT))) {
+      abortUpload(streamId, vertxContext);
       asyncResultHandler.handle(
           Future.succeededFuture(
-              PostFincConfigFilesResponse.respond500WithTextPlain("Internal server error")));
+              PostFincConfigFilesResponse.respond400WithTextPlain("Stream aborted")));
+    } else {
+      // stream is completed
+      createFile(streamId, isil, okapiHeaders, asyncResultHandler, vertxContext);
     }
   }
 
@@ -76,44 +135,102 @@ public class FincConfigFilesAPI extends FincFileHandler implements FincConfigFil
       Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
-    byte[] bytes = requestedBytes.get(streamId);
-    requestedBytes.remove(streamId);
-    String base64Data = Base64.getEncoder().encodeToString(bytes);
     String uuid = UUID.randomUUID().toString();
-    File file = new File().withId(uuid).withIsil(isil).withData(base64Data);
     okapiHeaders.put(X_OKAPI_TENANT, Constants.MODULE_TENANT);
-    fileDAO
-        .upsert(file, uuid, vertxContext)
+    storeUpload(
+            streamId,
+            (digest, content) -> {
+              File file = new File().withId(uuid).withIsil(isil);
+              return fileDAO.upsert(file, uuid, digest, content, vertxContext);
+            },
+            vertxContext)
         .onSuccess(
             f ->
                 asyncResultHandler.handle(
                     Future.succeededFuture(
                         PostFincConfigFilesResponse.respond200WithTextPlain(uuid))))
         .onFailure(
-            throwable ->
+            throwable -> {
+              if (throwable instanceof FileTooLargeException) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        PostFincConfigFilesResponse.respond413WithTextPlain(
+                            throwable.getMessage())));
+              } else {
                 asyncResultHandler.handle(
                     Future.succeededFuture(
                         PostFincConfigFilesResponse.respond500WithTextPlain(
-                            "Cannot insert file. " + throwable))));
+                            "Cannot insert file. " + throwable)));
+              }
+            });
   }
 
   @Override
   @Validate
   public void getFincConfigFilesById(
+      String id,
+      String range,
+      String acceptEncoding,
+      String ifNoneMatch,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    handleFileDownload(
+        range,
+        acceptEncoding,
+        ifNoneMatch,
+        () -> fileDAO.getContentInfo(id, null, vertxContext),
+        request -> fileDAO.getContent(id, null, request, vertxContext),
+        DOWNLOAD_RESPONDERS,
+        asyncResultHandler,
+        vertxContext);
+  }
+
+  @Override
+  public void getFincConfigFilesUploadStatus(
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    FileUploadStatus status =
+        new FileUploadStatus()
+            .withOpenUploads(fileUploads.getOpenUploads())
+            .withBytesHeld(fileUploads.getBytesHeld())
+            .withMaxSize(fileUploads.getMaxSize())
+            .withMaxTotalSize(fileUploads.getMaxTotalSize())
+            .withIdleTimeoutSeconds((int) (fileUploads.getIdleTimeoutMillis() / 1000))
+            .withRejectedUploads(fileUploads.getRejectedUploads())
+            .withEvictedUploads(fileUploads.getEvictedUploads());
+    asyncResultHandler.handle(
+        Future.succeededFuture(
+            GetFincConfigFilesUploadStatusResponse.respond200WithApplicationJson(status)));
+  }
+
+  @Override
+  @Validate
+  public void getFincConfigFilesInfoById(
       String id,
       Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
     fileDAO
-        .getById(id, vertxContext)
+        .getInfo(id, null, vertxContext)
         .onComplete(
-            ar ->
-                handleAsyncFileResponse(
-                    ar,
-                    GetFincConfigFilesByIdResponse::respond200WithApplicationOctetStream,
-                    GetFincConfigFilesByIdResponse::respond404WithTextPlain,
-                    GetFincConfigFilesByIdResponse::respond500WithTextPlain,
-                    asyncResultHandler));
+            ar -> {
+              if (ar.failed()) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincConfigFilesInfoByIdResponse.respond500WithTextPlain(ar.cause())));
+              } else if (ar.result() == null) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincConfigFilesInfoByIdResponse.respond404WithTextPlain("Not found")));
+              } else {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincConfigFilesInfoByIdResponse.respond200WithApplicationJson(
+                            ar.result())));
+              }
+            });
   }
 
   @Override
@@ -136,13 +253,4 @@ public class FincConfigFilesAPI extends FincFileHandler implements FincConfigFil
                     Future.succeededFuture(
                         DeleteFincConfigFilesByIdResponse.respond500WithTextPlain(throwable))));
   }
-
-  private void processBytesArrayFromStream(InputStream is, String streamId) throws IOException {
-    byte[] requestBytesArray = requestedBytes.get(streamId);
-    if (requestBytesArray == null) {
-      requestBytesArray = new byte[0];
-    }
-    requestBytesArray = ArrayUtils.addAll(requestBytesArray, is.readAllBytes());
-    requestedBytes.put(streamId, requestBytesArray);
-  }
 }
@@ -4,8 +4,13 @@ import io.vertx.core.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.finc.dao.LabelPropagationDAO;
+import org.folio.finc.dao.LabelPropagationDAOImpl;
 import org.folio.finc.dao.MetadataSourcesDAO;
 import org.folio.finc.dao.MetadataSourcesDAOImpl;
+import org.folio.finc.dao.MetadataSourcesTinySnapshot;
+import org.folio.finc.dao.SelectedStateQueueDAO;
+import org.folio.finc.dao.SelectedStateQueueDAOImpl;
 import org.folio.rest.RestVerticle;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.jaxrs.model.FincConfigMetadataSource;
@@ -31,10 +36,16 @@ public class FincConfigMetadataSourcesAPI implements FincConfigMetadataSources {
   private final Logger logger = LogManager.getLogger(FincConfigMetadataSourcesAPI.class);
 
   private final MetadataSourcesDAO metadataSourcesDAO;
+  private final SelectedStateQueueDAO selectedStateQueueDAO;
+  private final LabelPropagationDAO labelPropagationDAO;
+  private final MetadataSourcesTinySnapshot metadataSourcesTinySnapshot;
 
   public FincConfigMetadataSourcesAPI(Vertx vertx, String tenantId) {
     PostgresClient.getInstance(vertx);
     metadataSourcesDAO = new MetadataSourcesDAOImpl();
+    selectedStateQueueDAO = new SelectedStateQueueDAOImpl();
+    labelPropagationDAO = new LabelPropagationDAOImpl();
+    metadataSourcesTinySnapshot = MetadataSourcesTinySnapshot.getInstance(vertx);
   }
 
   @Override
@@ -98,7 +109,7 @@ public class FincConfigMetadataSourcesAPI implements FincConfigMetadataSources {
                 okapiHeaders,
                 vertxContext,
                 PostFincConfigMetadataSourcesResponse.class,
-                asyncResultHandler);
+                invalidatingTinySnapshot(asyncResultHandler));
           } else {
             logger.error(ar.cause());
             asyncResultHandler.handle(
@@ -144,7 +155,7 @@ public class FincConfigMetadataSourcesAPI implements FincConfigMetadataSources {
         okapiHeaders,
         vertxContext,
         DeleteFincConfigMetadataSourcesByIdResponse.class,
-        asyncResultHandler);
+        invalidatingTinySnapshot(asyncResultHandler));
   }
 
   @Override
@@ -172,7 +183,7 @@ public class FincConfigMetadataSourcesAPI implements FincConfigMetadataSources {
                 okapiHeaders,
                 vertxContext,
                 PutFincConfigMetadataSourcesByIdResponse.class,
-                asyncResultHandler);
+                invalidatingTinySnapshot(asyncResultHandler));
           } else {
             logger.error(ar.cause());
             asyncResultHandler.handle(
@@ -181,4 +192,67 @@ public class FincConfigMetadataSourcesAPI implements FincConfigMetadataSources {
           }
         });
   }
+
+  @Override
+  public void getFincConfigMetadataSourcesSelectedStateStatus(
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    selectedStateQueueDAO
+        .getStatus(vertxContext)
+        .onComplete(
+            ar -> {
+              if (ar.succeeded()) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincConfigMetadataSourcesSelectedStateStatusResponse
+                            .respond200WithApplicationJson(ar.result())));
+              } else {
+                logger.error(ar.cause());
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincConfigMetadataSourcesSelectedStateStatusResponse
+                            .respond500WithTextPlain(ar.cause())));
+              }
+            });
+  }
+
+  @Override
+  public void getFincConfigMetadataSourcesLabelPropagationById(
+      String id,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    labelPropagationDAO
+        .getByMetadataSourceId(id, vertxContext)
+        .onComplete(
+            ar -> {
+              if (ar.failed()) {
+                logger.error(ar.cause());
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincConfigMetadataSourcesLabelPropagationByIdResponse
+                            .respond500WithTextPlain(ar.cause())));
+              } else if (ar.result() == null) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincConfigMetadataSourcesLabelPropagationByIdResponse
+                            .respond404WithTextPlain("Not found")));
+              } else {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincConfigMetadataSourcesLabelPropagationByIdResponse
+                            .respond200WithApplicationJson(ar.result())));
+              }
+            });
+  }
+
+  /** Discards the snapshot of tiny metadata sources once a write has finished */
+  private Handler<AsyncResult<Response>> invalidatingTinySnapshot(
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+    return ar -> {
+      metadataSourcesTinySnapshot.invalidate();
+      asyncResultHandler.handle(ar);
+    };
+  }
 }
@@ -10,8 +10,7 @@ import io.vertx.core.Vertx;
 import java.util.Map;
 import javax.validation.constraints.Pattern;
 import javax.ws.rs.core.Response;
-import org.folio.finc.dao.MetadataSourcesTinyDAO;
-import org.folio.finc.dao.MetadataSourcesTinyDAOImpl;
+import org.folio.finc.dao.MetadataSourcesTinySnapshot;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.jaxrs.model.TinyMetadataSource;
 import org.folio.rest.jaxrs.resource.FincConfigTinyMetadataSources;
@@ -24,29 +23,41 @@ import org.folio.rest.tools.messages.Messages;
  */
 public class FincConfigTinyMetadataSourcesAPI implements FincConfigTinyMetadataSources {
 
-  private final MetadataSourcesTinyDAO metadataSourcesTinyDAO;
+  private final MetadataSourcesTinySnapshot metadataSourcesTinySnapshot;
   private final Messages messages = Messages.getInstance();
 
   public FincConfigTinyMetadataSourcesAPI(Vertx vertx, String tenantId) {
     PostgresClient.getInstance(vertx);
-    metadataSourcesTinyDAO = new MetadataSourcesTinyDAOImpl();
+    metadataSourcesTinySnapshot = MetadataSourcesTinySnapshot.getInstance(vertx);
   }
 
   @Override
   @Validate
   public void getFincConfigTinyMetadataSources(@Pattern(regexp = "[a-zA-Z]{2}") String lang,
+      String ifNoneMatch,
       Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
 
-    metadataSourcesTinyDAO
-        .getAll(vertxContext)
+    metadataSourcesTinySnapshot
+        .get(vertxContext)
         .onComplete(
             ar -> {
               if (ar.succeeded()) {
-                asyncResultHandler.handle(
-                    Future.succeededFuture(
-                        GetFincConfigTinyMetadataSourcesResponse.respond200WithApplicationJson(
-                            ar.result())));
+                MetadataSourcesTinySnapshot.Snapshot snapshot = ar.result();
+                if (snapshot.matches(ifNoneMatch)) {
+                  asyncResultHandler.handle(
+                      Future.succeededFuture(
+                          GetFincConfigTinyMetadataSourcesResponse.respond304(
+                              GetFincConfigTinyMetadataSourcesResponse.headersFor304()
+                                  .withETag(snapshot.getEtag()))));
+                } else {
+                  asyncResultHandler.handle(
+                      Future.succeededFuture(
+                          GetFincConfigTinyMetadataSourcesResponse.respond200WithApplicationJson(
+                              snapshot.getSources(),
+                              GetFincConfigTinyMetadataSourcesResponse.headersFor200()
+                                  .withETag(snapshot.getEtag()))));
+                }
               } else {
                 Throwable cause = ar.cause();
                 if (cause instanceof IllegalStateException) {
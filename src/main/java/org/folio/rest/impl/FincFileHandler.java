@@ -1,54 +1,267 @@
 package org.folio.rest.impl;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
-import java.util.Base64;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.FileSystem;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.BiFunction;
 import java.util.function.Function;
-import org.folio.finc.model.File;
-import org.folio.rest.jaxrs.resource.support.ResponseDelegate;
+import java.util.function.Supplier;
+import javax.ws.rs.core.Response;
+import org.folio.finc.model.ContentInfo;
+import org.folio.finc.model.StoredContent;
 import org.folio.rest.tools.utils.BinaryOutStream;
+import org.folio.rest.utils.ByteRange;
+import org.folio.rest.utils.ByteRange.UnsatisfiableRangeException;
+import org.folio.rest.utils.ContentEncoding;
+import org.folio.rest.utils.ETags;
+import org.folio.rest.utils.FileUploads;
+import org.folio.rest.utils.FileUploads.CompletedUpload;
+import org.folio.rest.utils.FileUploads.FileTooLargeException;
 
 /**
  * Abstract class to handle file related responses
  */
 public abstract class FincFileHandler {
 
-  protected void handleAsyncFileResponse(AsyncResult<File> ar,
-      Function<BinaryOutStream, ResponseDelegate> func200,
-      Function<String, ResponseDelegate> func404, Function<Throwable, ResponseDelegate> func500,
-      io.vertx.core.Handler<io.vertx.core.AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler) {
-    if (ar.succeeded()) {
-      handleFileResponse(
-          ar.result(),
-          func200,
-          func404,
-          asyncResultHandler);
+  /**
+   * Value of the Vary header of every download response. Whether a content is sent gzipped depends
+   * on the Accept-Encoding header, so caches must not serve one variant for the other.
+   */
+  protected static final String VARY = "Accept-Encoding";
+
+  protected final FileUploads fileUploads = FileUploads.getInstance();
+
+  /**
+   * Appends a chunk of a streamed upload to its temp file on a worker thread. The chunks, the
+   * completion and the abortion of uploads run in order, so a chunk is written before the next one
+   * and before the upload is completed.
+   *
+   * @param streamId ID of the stream
+   * @param chunk The chunk, it is closed when it has been written
+   * @param vertxContext The vertx context
+   * @return Fails if the chunk cannot be written to the temp file
+   */
+  protected Future<Void> appendUpload(String streamId, InputStream chunk, Context vertxContext) {
+    return vertxContext.executeBlocking(
+        promise -> {
+          try (InputStream in = chunk) {
+            fileUploads.append(streamId, in);
+            promise.complete();
+          } catch (IOException e) {
+            promise.fail(e);
+          }
+        },
+        true);
+  }
+
+  /**
+   * Discards a streamed upload on a worker thread, after its pending chunks have been written.
+   *
+   * @param streamId ID of the stream
+   * @param vertxContext The vertx context
+   */
+  protected Future<Void> abortUpload(String streamId, Context vertxContext) {
+    return vertxContext.executeBlocking(
+        promise -> {
+          fileUploads.abort(streamId);
+          promise.complete();
+        },
+        true);
+  }
+
+  /**
+   * Stores a completed streamed upload and deletes its temp file. The upload is completed after its
+   * pending chunks have been written. The temp file is only read if no content with the same digest
+   * is stored yet.
+   *
+   * @param streamId ID of the stream
+   * @param store Stores the file, given the digest of the upload and a reader of its content
+   * @param vertxContext The vertx context
+   * @return Result of store, fails with {@link FileTooLargeException} if the upload was too large
+   */
+  protected <T> Future<T> storeUpload(
+      String streamId,
+      BiFunction<String, Supplier<Future<byte[]>>, Future<T>> store,
+      Context vertxContext) {
+    FileSystem fileSystem = vertxContext.owner().fileSystem();
+    return vertxContext
+        .<CompletedUpload>executeBlocking(
+            promise -> {
+              try {
+                promise.complete(fileUploads.complete(streamId));
+              } catch (FileTooLargeException | IOException e) {
+                promise.fail(e);
+              }
+            },
+            true)
+        .compose(
+            upload -> {
+              String path = upload.getPath().toString();
+              return store
+                  .apply(upload.getDigest(), () -> fileSystem.readFile(path).map(Buffer::getBytes))
+                  .onComplete(ar -> fileSystem.delete(path));
+            });
+  }
+
+  /**
+   * Responds with the content of a file. Only the requested byte range is read from the database,
+   * so clients can fetch large files in parts and resume interrupted downloads. Length and range
+   * are read with one query. A gzipped content is passed through as is to clients accepting gzip,
+   * otherwise it is decompressed. The ETag is derived from the content's digest, so a client having
+   * the current content gets a 304 without the content being read.
+   *
+   * <p>The response is not streamed: RMB writes the response entity as a whole. Each download holds
+   * the requested range in memory, and for gzipped content also the stored content and the
+   * inflated prefix up to the end of the range. Clients of large files should request them in
+   * ranges to bound that memory.
+   *
+   * @param range Value of the Range header, may be null
+   * @param acceptEncoding Value of the Accept-Encoding header, may be null
+   * @param ifNoneMatch Value of the If-None-Match header, may be null
+   * @param contentInfoReader Reads length, encoding and digest of the file's content, null if there
+   *     is no such file
+   * @param contentReader Reads the content for the requested range, null if there is no such file
+   * @param responders The generated responders of the endpoint
+   */
+  protected void handleFileDownload(
+      String range,
+      String acceptEncoding,
+      String ifNoneMatch,
+      Supplier<Future<ContentInfo>> contentInfoReader,
+      Function<ByteRange.Request, Future<StoredContent>> contentReader,
+      DownloadResponders responders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    ByteRange.Request request = ByteRange.parse(range);
+    Future<ContentInfo> current =
+        ifNoneMatch == null ? Future.succeededFuture() : contentInfoReader.get();
+    current
+        .<Response>compose(
+            info -> {
+              if (ifNoneMatch != null && info == null) {
+                return Future.succeededFuture(responders.notFound("Not found"));
+              }
+              if (info != null
+                  && info.getDigest() != null
+                  && ETags.matches(
+                      ifNoneMatch,
+                      etag(info.getDigest(), null),
+                      etag(info.getDigest(), ContentEncoding.GZIP))) {
+                return Future.succeededFuture(
+                    responders.notModified(etag(info, acceptEncoding, request)));
+              }
+              return contentReader
+                  .apply(request)
+                  .compose(
+                      content ->
+                          content == null
+                              ? Future.succeededFuture(responders.notFound("Not found"))
+                              : respond(
+                                  content, request, acceptEncoding, responders, vertxContext));
+            })
+        .onComplete(
+            ar ->
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        ar.succeeded() ? ar.result() : responders.error(ar.cause()))));
+  }
+
+  private static Future<Response> respond(
+      StoredContent content,
+      ByteRange.Request request,
+      String acceptEncoding,
+      DownloadResponders responders,
+      Context vertxContext) {
+    ContentInfo info = content.getInfo();
+    ByteRange byteRange;
+    try {
+      byteRange = request == null ? null : request.resolve(info.getLength());
+    } catch (UnsatisfiableRangeException e) {
+      return Future.succeededFuture(
+          responders.rangeNotSatisfiable(e.getMessage(), e.toContentRange()));
+    }
+    String etag = etag(info, acceptEncoding, request);
+    boolean gzipped = ContentEncoding.GZIP.equals(info.getEncoding());
+    if (byteRange == null && gzipped && ContentEncoding.acceptsGzip(acceptEncoding)) {
+      return Future.succeededFuture(
+          responders.ok(binary(content.getBytes()), etag, ContentEncoding.GZIP));
+    }
+    Future<byte[]> decoded;
+    if (info.getEncoding() == null) {
+      // the database only returned the requested range
+      decoded = Future.succeededFuture(content.getBytes());
+    } else if (!gzipped) {
+      decoded = Future.failedFuture("Unknown content encoding " + info.getEncoding());
     } else {
-      asyncResultHandler.handle(
-          Future.succeededFuture(
-              func500.apply(ar.cause())));
+      // A gzip stream cannot be entered at an offset, so the range is inflated from the start of
+      // the content, and all of the content is read from the database. Ranges are mostly used to
+      // resume downloads, which clients accepting gzip do not need: they get the smaller stored
+      // content in full. Seekable compression would need an index of restart points per content.
+      long offset = byteRange == null ? 0 : byteRange.getOffset();
+      long length = byteRange == null ? info.getLength() : byteRange.getLength();
+      decoded =
+          vertxContext.executeBlocking(
+              promise ->
+                  promise.complete(ContentEncoding.gunzip(content.getBytes(), offset, length)),
+              false);
     }
+    return decoded.map(
+        bytes ->
+            byteRange == null
+                ? responders.ok(binary(bytes), etag, null)
+                : responders.partialContent(binary(bytes), etag, byteRange.toContentRange()));
   }
 
-  private void handleFileResponse(File file,
-      Function<BinaryOutStream, ResponseDelegate> succeedFunc,
-      Function<String, ResponseDelegate> failFunc,
-      io.vertx.core.Handler<io.vertx.core.AsyncResult<javax.ws.rs.core.Response>> asyncResultHandler) {
-    if (file == null) {
-      asyncResultHandler.handle(
-          Future.succeededFuture(
-              failFunc.apply("Not found")));
-    } else {
-      String dataAsString = file.getData();
-      byte[] decoded = Base64.getDecoder().decode(dataAsString);
-
-      BinaryOutStream binaryOutStream = new BinaryOutStream();
-      binaryOutStream.setData(decoded);
-      asyncResultHandler.handle(
-          Future.succeededFuture(
-              succeedFunc.apply(binaryOutStream)));
+  /** ETag of the response, the gzip variant if the stored gzipped content is passed through */
+  private static String etag(ContentInfo info, String acceptEncoding, ByteRange.Request request) {
+    boolean passThrough =
+        ContentEncoding.GZIP.equals(info.getEncoding())
+            && ContentEncoding.acceptsGzip(acceptEncoding)
+            && request == null;
+    return etag(info.getDigest(), passThrough ? ContentEncoding.GZIP : null);
+  }
+
+  /** Strong ETag of a content, distinct for each encoding it is sent with */
+  private static String etag(String digest, String encoding) {
+    if (digest == null) {
+      return null;
     }
+    return encoding == null ? "\"" + digest + "\"" : "\"" + digest + "-" + encoding + "\"";
   }
 
+  private static BinaryOutStream binary(byte[] content) {
+    BinaryOutStream binaryOutStream = new BinaryOutStream();
+    binaryOutStream.setData(content);
+    return binaryOutStream;
+  }
+
+  /**
+   * The generated responders of a file download endpoint. A header whose value is null is not
+   * sent.
+   */
+  protected interface DownloadResponders {
+
+    /** 200 with the full content, contentEncoding is gzip if it is passed through as stored */
+    Response ok(BinaryOutStream content, String etag, String contentEncoding);
 
+    /** 206 with the requested byte range */
+    Response partialContent(BinaryOutStream content, String etag, String contentRange);
+
+    /** 304 */
+    Response notModified(String etag);
+
+    /** 416 */
+    Response rangeNotSatisfiable(String message, String contentRange);
+
+    /** 404 */
+    Response notFound(String message);
+
+    /** 500 */
+    Response error(Throwable throwable);
+  }
 }
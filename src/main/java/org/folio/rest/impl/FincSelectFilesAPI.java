@@ -5,24 +5,21 @@ import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 
-import java.io.BufferedInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
 import javax.ws.rs.core.Response;
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.ArrayUtils;
 import org.folio.finc.dao.IsilDAO;
 import org.folio.finc.dao.IsilDAOImpl;
 import org.folio.finc.dao.SelectFileDAO;
 import org.folio.finc.dao.SelectFileDAOImpl;
 import org.folio.finc.model.File;
-import org.folio.finc.select.IsilHelper;
 import org.folio.rest.RestVerticle;
 import org.folio.rest.annotations.Stream;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.jaxrs.resource.FincSelectFiles;
+import org.folio.rest.tools.utils.BinaryOutStream;
 import org.folio.rest.tools.utils.TenantTool;
+import org.folio.rest.utils.FileUploads.FileTooLargeException;
 
 import static org.folio.rest.utils.Constants.*;
 
@@ -31,19 +28,101 @@ import static org.folio.rest.utils.Constants.*;
  */
 public class FincSelectFilesAPI extends FincFileHandler implements FincSelectFiles {
 
-  private final IsilHelper isilHelper;
+  private static final DownloadResponders DOWNLOAD_RESPONDERS =
+      new DownloadResponders() {
+        @Override
+        public Response ok(BinaryOutStream content, String etag, String contentEncoding) {
+          GetFincSelectFilesByIdResponse.HeadersFor200 headers =
+              GetFincSelectFilesByIdResponse.headersFor200()
+                  .withAcceptRanges("bytes")
+                  .withVary(VARY);
+          if (etag != null) {
+            headers.withETag(etag);
+          }
+          if (contentEncoding != null) {
+            headers.withContentEncoding(contentEncoding);
+          }
+          return GetFincSelectFilesByIdResponse.respond200WithApplicationOctetStream(
+              content, headers);
+        }
+
+        @Override
+        public Response partialContent(
+            BinaryOutStream content, String etag, String contentRange) {
+          GetFincSelectFilesByIdResponse.HeadersFor206 headers =
+              GetFincSelectFilesByIdResponse.headersFor206()
+                  .withAcceptRanges("bytes")
+                  .withContentRange(contentRange)
+                  .withVary(VARY);
+          if (etag != null) {
+            headers.withETag(etag);
+          }
+          return GetFincSelectFilesByIdResponse.respond206WithApplicationOctetStream(
+              content, headers);
+        }
+
+        @Override
+        public Response notModified(String etag) {
+          return GetFincSelectFilesByIdResponse.respond304(
+              GetFincSelectFilesByIdResponse.headersFor304().withETag(etag).withVary(VARY));
+        }
+
+        @Override
+        public Response rangeNotSatisfiable(String message, String contentRange) {
+          return GetFincSelectFilesByIdResponse.respond416WithTextPlain(
+              message,
+              GetFincSelectFilesByIdResponse.headersFor416()
+                  .withContentRange(contentRange)
+                  .withVary(VARY));
+        }
+
+        @Override
+        public Response notFound(String message) {
+          return GetFincSelectFilesByIdResponse.respond404WithTextPlain(message);
+        }
+
+        @Override
+        public Response error(Throwable throwable) {
+          return GetFincSelectFilesByIdResponse.respond500WithTextPlain(throwable);
+        }
+      };
+
   private final IsilDAO isilDAO;
   private final SelectFileDAO selectFileDAO;
-  private Map<String, byte[]> requestedBytes = new HashMap<>();
 
   public FincSelectFilesAPI() {
-    this.isilHelper = new IsilHelper();
     this.selectFileDAO = new SelectFileDAOImpl();
     this.isilDAO = new IsilDAOImpl();
   }
 
   @Override
+  @Validate
   public void getFincSelectFilesById(
+      String id,
+      String range,
+      String acceptEncoding,
+      String ifNoneMatch,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+
+    String tenantId =
+        TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
+    Future<String> isil = isilDAO.getIsilForTenant(tenantId, vertxContext);
+    handleFileDownload(
+        range,
+        acceptEncoding,
+        ifNoneMatch,
+        () -> isil.compose(i -> selectFileDAO.getContentInfo(id, i, vertxContext)),
+        request -> isil.compose(i -> selectFileDAO.getContent(id, i, request, vertxContext)),
+        DOWNLOAD_RESPONDERS,
+        asyncResultHandler,
+        vertxContext);
+  }
+
+  @Override
+  @Validate
+  public void getFincSelectFilesInfoById(
       String id,
       Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler,
@@ -53,15 +132,24 @@ public class FincSelectFilesAPI extends FincFileHandler implements FincSelectFil
         TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
     isilDAO
         .getIsilForTenant(tenantId, vertxContext)
-        .compose(isil -> selectFileDAO.getById(id, isil, vertxContext))
+        .compose(isil -> selectFileDAO.getInfo(id, isil, vertxContext))
         .onComplete(
-            ar ->
-                handleAsyncFileResponse(
-                    ar,
-                    GetFincSelectFilesByIdResponse::respond200WithApplicationOctetStream,
-                    GetFincSelectFilesByIdResponse::respond404WithTextPlain,
-                    GetFincSelectFilesByIdResponse::respond500WithTextPlain,
-                    asyncResultHandler));
+            ar -> {
+              if (ar.failed()) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincSelectFilesInfoByIdResponse.respond500WithTextPlain(ar.cause())));
+              } else if (ar.result() == null) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincSelectFilesInfoByIdResponse.respond404WithTextPlain("Not found")));
+              } else {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        GetFincSelectFilesInfoByIdResponse.respond200WithApplicationJson(
+                            ar.result())));
+              }
+            });
   }
 
   @Override
@@ -73,21 +161,22 @@ public class FincSelectFilesAPI extends FincFileHandler implements FincSelectFil
       Handler<AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
     String streamId = okapiHeaders.get(STREAM_ID);
-    try (InputStream bis = new BufferedInputStream(entity)) {
-      if (Objects.isNull(okapiHeaders.get(STREAM_COMPLETE))) {
-        processBytesArrayFromStream(bis, streamId);
-      } else if (Objects.nonNull(okapiHeaders.get(STREAM_ABORT))) {
-        asyncResultHandler.handle(
-            Future.succeededFuture(
-                PostFincSelectFilesResponse.respond400WithTextPlain("Stream aborted")));
-      } else {
-        // stream is completed
-        createFile(streamId, okapiHeaders, asyncResultHandler, vertxContext);
-      }
-    } catch (IOException e) {
+    if (Objects.isNull(okapiHeaders.get(STREAM_COMPLETE))) {
+      appendUpload(streamId, entity, vertxContext)
+          .onFailure(
+              throwable ->
+                  asyncResultHandler.handle(
+                      Future.succeededFuture(
+                          PostFincSelectFilesResponse.respond500WithTextPlain(
+                              "Internal server error"))));
+    } else if (Objects.nonNull(okapiHeaders.get(STREAM_ABORT))) {
+      abortUpload(streamId, vertxContext);
       asyncResultHandler.handle(
           Future.succeededFuture(
-              PostFincSelectFilesResponse.respond500WithTextPlain("Internal server error")));
+              PostFincSelectFilesResponse.respond400WithTextPlain("Stream aborted")));
+    } else {
+      // stream is completed
+      createFile(streamId, okapiHeaders, asyncResultHandler, vertxContext);
     }
   }
 
@@ -96,27 +185,31 @@ public class FincSelectFilesAPI extends FincFileHandler implements FincSelectFil
       Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
-    byte[] bytes = requestedBytes.get(streamId);
-    requestedBytes.remove(streamId);
-    String base64Data = Base64.getEncoder().encodeToString(bytes);
     String uuid = UUID.randomUUID().toString();
     String tenantId =
         TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
-    isilHelper.fetchIsil(tenantId, vertxContext);
-
-    isilDAO
-        .getIsilForTenant(tenantId, vertxContext)
-        .compose(
-            isil -> {
-              File file = new File().withData(base64Data).withId(uuid).withIsil(isil);
-              return selectFileDAO.upsert(file, uuid, vertxContext);
-            })
+    storeUpload(
+            streamId,
+            (digest, content) ->
+                isilDAO
+                    .getIsilForTenant(tenantId, vertxContext)
+                    .compose(
+                        isil -> {
+                          File file = new File().withId(uuid).withIsil(isil);
+                          return selectFileDAO.upsert(file, uuid, digest, content, vertxContext);
+                        }),
+            vertxContext)
         .onComplete(
             ar -> {
               if (ar.succeeded()) {
                 asyncResultHandler.handle(
                     Future.succeededFuture(
                         PostFincSelectFilesResponse.respond200WithTextPlain(uuid)));
+              } else if (ar.cause() instanceof FileTooLargeException) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        PostFincSelectFilesResponse.respond413WithTextPlain(
+                            ar.cause().getMessage())));
               } else {
                 asyncResultHandler.handle(
                     Future.succeededFuture(
@@ -151,13 +244,4 @@ public class FincSelectFilesAPI extends FincFileHandler implements FincSelectFil
               }
             });
   }
-
-  private void processBytesArrayFromStream(InputStream is, String streamId) throws IOException {
-    byte[] requestBytesArray = requestedBytes.get(streamId);
-    if (requestBytesArray == null) {
-      requestBytesArray = new byte[0];
-    }
-    requestBytesArray = ArrayUtils.addAll(requestBytesArray, IOUtils.toByteArray(is));
-    requestedBytes.put(streamId, requestBytesArray);
-  }
 }
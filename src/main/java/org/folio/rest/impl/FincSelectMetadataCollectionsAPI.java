@@ -18,6 +18,7 @@ import org.folio.finc.select.SelectMetadataCollectionsHelper;
 import org.folio.finc.select.exception.FincSelectNotPermittedException;
 import org.folio.rest.RestVerticle;
 import org.folio.rest.annotations.Validate;
+import org.folio.rest.jaxrs.model.CollectionsSelect;
 import org.folio.rest.jaxrs.model.FincSelectMetadataCollectionsGetOrder;
 import org.folio.rest.jaxrs.model.Select;
 import org.folio.rest.jaxrs.resource.FincSelectMetadataCollections;
@@ -127,10 +128,15 @@ public class FincSelectMetadataCollectionsAPI implements FincSelectMetadataColle
         .selectMetadataCollection(id, entity, okapiHeaders, vertxContext)
         .onComplete(
             ar -> {
-              if (ar.succeeded()) {
+              if (ar.succeeded() && Boolean.TRUE.equals(ar.result())) {
                 asyncResultHandler.handle(
                     Future.succeededFuture(
                         PutFincSelectMetadataCollectionsSelectByIdResponse.respond204()));
+              } else if (ar.succeeded()) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        PutFincSelectMetadataCollectionsSelectByIdResponse
+                            .respond404WithTextPlain("Not found")));
               } else {
                 Throwable cause = ar.cause();
                 if (cause instanceof FincSelectNotPermittedException) {
@@ -171,4 +177,29 @@ public class FincSelectMetadataCollectionsAPI implements FincSelectMetadataColle
     vertxContext.runOnContext(
         aVoid -> asyncResultHandler.handle(succeededFuture(Response.status(501).build())));
   }
+
+  @Override
+  @Validate
+  public void putFincSelectMetadataCollectionsBulkSelect(
+      CollectionsSelect entity,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    selectMetadataCollectionsHelper
+        .selectMetadataCollections(entity, okapiHeaders, vertxContext)
+        .onComplete(
+            ar -> {
+              if (ar.succeeded()) {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        PutFincSelectMetadataCollectionsBulkSelectResponse
+                            .respond200WithApplicationJson(ar.result())));
+              } else {
+                asyncResultHandler.handle(
+                    Future.succeededFuture(
+                        PutFincSelectMetadataCollectionsBulkSelectResponse
+                            .respond500WithTextPlain(ar.cause())));
+              }
+            });
+  }
 }
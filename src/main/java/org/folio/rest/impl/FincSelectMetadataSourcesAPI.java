@@ -17,6 +17,7 @@ import org.folio.finc.dao.SelectMetadataSourcesDAOImpl;
 import org.folio.finc.select.SelectMetadataSourcesHelper;
 import org.folio.rest.RestVerticle;
 import org.folio.rest.annotations.Validate;
+import org.folio.rest.jaxrs.model.BulkSelect;
 import org.folio.rest.jaxrs.model.FincSelectMetadataSource;
 import org.folio.rest.jaxrs.model.FincSelectMetadataSourcesGetOrder;
 import org.folio.rest.jaxrs.model.Select;
@@ -187,8 +188,8 @@ public class FincSelectMetadataSourcesAPI implements FincSelectMetadataSources {
       Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
-    vertxContext.runOnContext(
-        aVoid -> asyncResultHandler.handle(succeededFuture(Response.status(501).build())));
+    this.selectMetadataSourcesHelper.getSelectAllJob(
+        id, okapiHeaders, asyncResultHandler, vertxContext);
   }
 
   @Override
@@ -202,4 +203,26 @@ public class FincSelectMetadataSourcesAPI implements FincSelectMetadataSources {
     vertxContext.runOnContext(
         aVoid -> asyncResultHandler.handle(succeededFuture(Response.status(501).build())));
   }
+
+  @Override
+  @Validate
+  public void putFincSelectMetadataSourcesBulkSelect(
+      BulkSelect entity,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    this.selectMetadataSourcesHelper.bulkSelect(
+        entity, okapiHeaders, asyncResultHandler, vertxContext);
+  }
+
+  @Override
+  @Validate
+  public void getFincSelectMetadataSourcesBulkSelectByJobId(
+      String jobId,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    this.selectMetadataSourcesHelper.getBulkSelectJob(
+        jobId, okapiHeaders, asyncResultHandler, vertxContext);
+  }
 }
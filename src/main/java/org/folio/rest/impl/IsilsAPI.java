@@ -160,7 +160,7 @@ public class IsilsAPI implements FincConfigIsils {
 
     String tenant = entity.getTenant();
     isilDAO
-        .getIsilForTenant(tenant, vertxContext)
+        .fetchIsilForTenant(tenant, vertxContext)
         .onSuccess(
             isil -> {
               if (isil == null) {
@@ -170,7 +170,7 @@ public class IsilsAPI implements FincConfigIsils {
                     okapiHeaders,
                     vertxContext,
                     PostFincConfigIsilsResponse.class,
-                    asyncResultHandler);
+                    invalidatingIsilCache(asyncResultHandler, vertxContext));
               } else {
                 asyncResultHandler.handle(
                     Future.succeededFuture(
@@ -219,7 +219,7 @@ public class IsilsAPI implements FincConfigIsils {
         okapiHeaders,
         vertxContext,
         DeleteFincConfigIsilsByIdResponse.class,
-        asyncResultHandler);
+        invalidatingIsilCache(asyncResultHandler, vertxContext));
   }
 
   @Override
@@ -235,7 +235,7 @@ public class IsilsAPI implements FincConfigIsils {
 
     String tenant = entity.getTenant();
     isilDAO
-        .getIsilForTenant(tenant, vertxContext)
+        .fetchIsilForTenant(tenant, vertxContext)
         .onSuccess(
             isil -> {
               if (isilIsValid(isil, entity.getIsil())) {
@@ -246,7 +246,7 @@ public class IsilsAPI implements FincConfigIsils {
                     okapiHeaders,
                     vertxContext,
                     PutFincConfigIsilsByIdResponse.class,
-                    asyncResultHandler);
+                    invalidatingIsilCache(asyncResultHandler, vertxContext));
               } else {
                 asyncResultHandler.handle(
                     Future.succeededFuture(
@@ -261,6 +261,15 @@ public class IsilsAPI implements FincConfigIsils {
                         PostFincConfigIsilsResponse.respond500WithTextPlain(throwable))));
   }
 
+  /** Discards the cached isils of all tenants once a write has finished */
+  private Handler<AsyncResult<Response>> invalidatingIsilCache(
+      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    return ar -> {
+      IsilDAOImpl.invalidateCache(vertxContext.owner());
+      asyncResultHandler.handle(ar);
+    };
+  }
+
   private boolean isilIsValid(String isilForTenant, String isilFromRequestes) {
     if (isilForTenant == null) {
       return true;
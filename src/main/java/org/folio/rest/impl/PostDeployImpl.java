@@ -4,7 +4,10 @@ import io.vertx.core.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.finc.periodic.EZBHarvestJob;
+import org.folio.finc.select.verticles.LabelPropagationVerticle;
+import org.folio.finc.select.verticles.SelectedStateQueueVerticle;
 import org.folio.rest.resource.interfaces.PostDeployVerticle;
+import org.folio.rest.utils.FileUploads;
 import org.quartz.*;
 import org.quartz.impl.StdSchedulerFactory;
 
@@ -24,6 +27,22 @@ public class PostDeployImpl implements PostDeployVerticle {
       return;
     }
 
+    vertx.deployVerticle(
+        new SelectedStateQueueVerticle(),
+        ar -> {
+          if (ar.failed()) {
+            log.error("Cannot deploy SelectedStateQueueVerticle", ar.cause());
+          }
+        });
+    vertx.deployVerticle(
+        new LabelPropagationVerticle(),
+        ar -> {
+          if (ar.failed()) {
+            log.error("Cannot deploy LabelPropagationVerticle", ar.cause());
+          }
+        });
+    scheduleUploadEviction(vertx);
+
     try {
       Scheduler scheduler = StdSchedulerFactory.getDefaultScheduler();
       scheduler.getContext().put("vertxContext", context);
@@ -43,4 +62,21 @@ public class PostDeployImpl implements PostDeployVerticle {
       log.error(e);
     }
   }
+
+  /** Evicts abandoned file uploads, checking at most every minute */
+  private static void scheduleUploadEviction(Vertx vertx) {
+    FileUploads fileUploads = FileUploads.getInstance();
+    long interval = Math.max(1000, Math.min(fileUploads.getIdleTimeoutMillis(), 60000));
+    vertx.setPeriodic(
+        interval,
+        id ->
+            vertx.executeBlocking(
+                promise -> promise.complete(fileUploads.evictIdle()),
+                false,
+                ar -> {
+                  if (ar.failed()) {
+                    log.error("Cannot evict abandoned file uploads", ar.cause());
+                  }
+                }));
+  }
 }
@@ -0,0 +1,147 @@
+package org.folio.rest.utils;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A single byte range of an HTTP Range header (RFC 7233), resolved against the length of the
+ * content. Multiple ranges are not supported, such a header is ignored and the full content is
+ * served.
+ */
+public class ByteRange {
+
+  private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+  private final long offset;
+  private final long length;
+  private final long totalLength;
+
+  private ByteRange(long offset, long length, long totalLength) {
+    this.offset = offset;
+    this.length = length;
+    this.totalLength = totalLength;
+  }
+
+  /**
+   * Parses the Range header.
+   *
+   * @param header Value of the Range header, may be null
+   * @param totalLength Length of the content
+   * @return The range, null if the full content is to be served
+   * @throws UnsatisfiableRangeException If the range lies outside of the content
+   */
+  public static ByteRange parse(String header, long totalLength)
+      throws UnsatisfiableRangeException {
+    Request request = parse(header);
+    return request == null ? null : request.resolve(totalLength);
+  }
+
+  /**
+   * Parses the Range header without knowing the length of the content, e.g. to read the range and
+   * the length with one query.
+   *
+   * @param header Value of the Range header, may be null
+   * @return The requested range, null if the full content is to be served
+   */
+  public static Request parse(String header) {
+    if (header == null) {
+      return null;
+    }
+    Matcher matcher = RANGE_PATTERN.matcher(header.trim());
+    if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+      return null;
+    }
+    try {
+      if (matcher.group(1).isEmpty()) {
+        return new Request(null, null, Long.parseLong(matcher.group(2)));
+      }
+      long first = Long.parseLong(matcher.group(1));
+      Long last = matcher.group(2).isEmpty() ? null : Long.parseLong(matcher.group(2));
+      if (last != null && last < first) {
+        return null;
+      }
+      return new Request(first, last, null);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /** Zero based offset of the first byte */
+  public long getOffset() {
+    return offset;
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  /** Value of the Content-Range header of the partial response */
+  public String toContentRange() {
+    return "bytes " + offset + "-" + (offset + length - 1) + "/" + totalLength;
+  }
+
+  /** A range as requested, not yet resolved against the length of the content */
+  public static class Request {
+
+    private final Long first;
+    private final Long last;
+    private final Long suffixLength;
+
+    private Request(Long first, Long last, Long suffixLength) {
+      this.first = first;
+      this.last = last;
+      this.suffixLength = suffixLength;
+    }
+
+    /** Zero based position of the first byte, null for a suffix range */
+    public Long getFirst() {
+      return first;
+    }
+
+    /** Zero based position of the last byte, null for an open or a suffix range */
+    public Long getLast() {
+      return last;
+    }
+
+    /** Number of bytes at the end of the content, null if it is no suffix range */
+    public Long getSuffixLength() {
+      return suffixLength;
+    }
+
+    /**
+     * @param totalLength Length of the content
+     * @return The range within the content
+     * @throws UnsatisfiableRangeException If the range lies outside of the content
+     */
+    public ByteRange resolve(long totalLength) throws UnsatisfiableRangeException {
+      if (suffixLength != null) {
+        if (suffixLength == 0 || totalLength == 0) {
+          throw new UnsatisfiableRangeException(totalLength);
+        }
+        long length = Math.min(suffixLength, totalLength);
+        return new ByteRange(totalLength - length, length, totalLength);
+      }
+      if (first >= totalLength) {
+        throw new UnsatisfiableRangeException(totalLength);
+      }
+      long lastInContent = last == null ? totalLength - 1 : Math.min(last, totalLength - 1);
+      return new ByteRange(first, lastInContent - first + 1, totalLength);
+    }
+  }
+
+  /** Thrown if a range does not overlap the content */
+  public static class UnsatisfiableRangeException extends Exception {
+
+    private final long totalLength;
+
+    public UnsatisfiableRangeException(long totalLength) {
+      super("Range not satisfiable, content length is " + totalLength);
+      this.totalLength = totalLength;
+    }
+
+    /** Value of the Content-Range header of the 416 response */
+    public String toContentRange() {
+      return "bytes */" + totalLength;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package org.folio.rest.utils;
+
+/**
+ * Reads module settings. A setting like "finc.select.maxConcurrentJobs" can be given as system
+ * property (-Dfinc.select.maxConcurrentJobs=4) or as environment variable
+ * (FINC_SELECT_MAXCONCURRENTJOBS=4). System properties take precedence.
+ */
+public class ConfigUtils {
+
+  private ConfigUtils() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  public static String getString(String key, String defaultValue) {
+    String value = System.getProperty(key);
+    if (value == null) {
+      value = System.getenv(toEnvName(key));
+    }
+    return value == null || value.isBlank() ? defaultValue : value.trim();
+  }
+
+  public static int getInt(String key, int defaultValue) {
+    String value = getString(key, null);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(
+          String.format("Setting %s must be an integer but is '%s'", key, value), e);
+    }
+  }
+
+  public static boolean getBoolean(String key, boolean defaultValue) {
+    String value = getString(key, null);
+    if (value == null) {
+      return defaultValue;
+    }
+    if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+      throw new IllegalArgumentException(
+          String.format("Setting %s must be true or false but is '%s'", key, value));
+    }
+    return Boolean.parseBoolean(value);
+  }
+
+  static String toEnvName(String key) {
+    return key.toUpperCase().replace('.', '_').replace('-', '_');
+  }
+}
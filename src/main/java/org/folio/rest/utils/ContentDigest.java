@@ -0,0 +1,30 @@
+package org.folio.rest.utils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/** SHA-256 digests of file contents, hex encoded. They address the contents of stored files. */
+public class ContentDigest {
+
+  private ContentDigest() {}
+
+  public static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static String of(byte[] content) {
+    return toHex(newDigest().digest(content));
+  }
+
+  public static String toHex(byte[] digest) {
+    StringBuilder hex = new StringBuilder(digest.length * 2);
+    for (byte b : digest) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.toString();
+  }
+}
@@ -0,0 +1,82 @@
+package org.folio.rest.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression of stored file contents. Contents are gzipped at rest unless the setting {@value
+ * #COMPRESS} is false or gzip does not make them smaller.
+ */
+public class ContentEncoding {
+
+  public static final String GZIP = "gzip";
+  public static final String COMPRESS = "finc.files.compress";
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private ContentEncoding() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  public static boolean isCompressionEnabled() {
+    return ConfigUtils.getBoolean(COMPRESS, true);
+  }
+
+  /**
+   * Checks if a client accepts gzip encoded responses.
+   *
+   * @param acceptEncoding Value of the Accept-Encoding header, may be null
+   */
+  public static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+        return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+
+  public static byte[] gzip(byte[] content) {
+    ByteArrayOutputStream encoded = new ByteArrayOutputStream(content.length / 4 + 64);
+    try (GZIPOutputStream out = new GZIPOutputStream(encoded, BUFFER_SIZE)) {
+      out.write(content);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return encoded.toByteArray();
+  }
+
+  /**
+   * Decompresses a slice of gzipped content. The content is decompressed as a stream, only the
+   * slice is held in memory.
+   *
+   * @param encoded The gzipped content
+   * @param offset Zero based offset of the first byte of the slice in the decompressed content
+   * @param length Number of bytes of the slice
+   * @return The slice, shorter than length if the content ends before
+   */
+  public static byte[] gunzip(byte[] encoded, long offset, long length) {
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded), BUFFER_SIZE)) {
+      long skipped = 0;
+      while (skipped < offset) {
+        long n = in.skip(offset - skipped);
+        if (n <= 0) {
+          return new byte[0];
+        }
+        skipped += n;
+      }
+      return in.readNBytes((int) length);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
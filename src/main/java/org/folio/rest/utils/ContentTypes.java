@@ -0,0 +1,77 @@
+package org.folio.rest.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Detects the content type of an uploaded file from its first bytes. Holdings files (KBART) are
+ * tab separated UTF-8 text, whitelists and blacklists are plain text.
+ */
+public class ContentTypes {
+
+  public static final String OCTET_STREAM = "application/octet-stream";
+
+  private static final int SNIFF_LENGTH = 8 * 1024;
+
+  private ContentTypes() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  public static String detect(byte[] content) {
+    if (startsWith(content, 0x1f, 0x8b)) {
+      return "application/gzip";
+    }
+    if (startsWith(content, 'P', 'K', 0x03, 0x04)) {
+      return "application/zip";
+    }
+    if (startsWith(content, '%', 'P', 'D', 'F')) {
+      return "application/pdf";
+    }
+    int length = Math.min(content.length, SNIFF_LENGTH);
+    if (!isText(content, length)) {
+      return OCTET_STREAM;
+    }
+    for (int i = 0; i < length && content[i] != '\n'; i++) {
+      if (content[i] == '\t') {
+        return "text/tab-separated-values";
+      }
+    }
+    return "text/plain";
+  }
+
+  private static boolean startsWith(byte[] content, int... magic) {
+    if (content.length < magic.length) {
+      return false;
+    }
+    for (int i = 0; i < magic.length; i++) {
+      if ((content[i] & 0xff) != magic[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** UTF-8 without NUL bytes, a multi byte character may be cut off at the end of the sniff */
+  private static boolean isText(byte[] content, int length) {
+    for (int i = 0; i < length; i++) {
+      if (content[i] == 0) {
+        return false;
+      }
+    }
+    CharsetDecoder decoder =
+        StandardCharsets.UTF_8
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    CoderResult result =
+        decoder.decode(
+            ByteBuffer.wrap(content, 0, length),
+            CharBuffer.allocate(length),
+            length == content.length);
+    return !result.isError();
+  }
+}
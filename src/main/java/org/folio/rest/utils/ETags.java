@@ -0,0 +1,32 @@
+package org.folio.rest.utils;
+
+/** Conditional requests with If-None-Match, see RFC 7232 */
+public class ETags {
+
+  private ETags() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * @param ifNoneMatch Value of the If-None-Match header, may be null
+   * @param etags The current ETags of the requested resource
+   * @return True if the client already has the resource
+   */
+  public static boolean matches(String ifNoneMatch, String... etags) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String tag : ifNoneMatch.split(",")) {
+      String trimmed = tag.trim();
+      if (trimmed.equals("*")) {
+        return true;
+      }
+      for (String etag : etags) {
+        if (trimmed.equals(etag) || trimmed.equals("W/" + etag)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
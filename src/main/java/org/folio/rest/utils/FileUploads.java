@@ -0,0 +1,266 @@
+package org.folio.rest.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Collects the chunks of streamed file uploads in temp files, so an upload is written in linear
+ * time and does not stay on the heap while it is streamed. The {@link ContentDigest} of an upload
+ * is computed along the way.
+ *
+ * <p>An upload larger than the setting {@value #MAX_SIZE} (bytes) is discarded while streaming
+ * and rejected on completion. So is an upload that would make all open uploads together hold more
+ * than {@value #MAX_TOTAL_SIZE} (bytes). An upload not continued for {@value #IDLE_TIMEOUT}
+ * (milliseconds) is considered abandoned and discarded by {@link #evictIdle()}.
+ *
+ * <p>Appending, completing, aborting and evicting uploads do blocking file I/O, so they have to be
+ * called from a worker thread.
+ */
+public class FileUploads {
+
+  public static final String MAX_SIZE = "finc.files.maxSize";
+  public static final String MAX_TOTAL_SIZE = "finc.files.maxTotalSize";
+  public static final String IDLE_TIMEOUT = "finc.files.uploadIdleTimeout";
+
+  private static final Logger logger = LogManager.getLogger(FileUploads.class);
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final FileUploads instance =
+      new FileUploads(
+          ConfigUtils.getInt(MAX_SIZE, 256 * 1024 * 1024),
+          ConfigUtils.getInt(MAX_TOTAL_SIZE, 1024 * 1024 * 1024),
+          ConfigUtils.getInt(IDLE_TIMEOUT, 600000));
+
+  private final long maxSize;
+  private final long maxTotalSize;
+  private final long idleTimeoutMillis;
+  private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+  private final AtomicLong bytesHeld = new AtomicLong();
+  private final AtomicLong rejectedUploads = new AtomicLong();
+  private final AtomicLong evictedUploads = new AtomicLong();
+
+  FileUploads(long maxSize, long maxTotalSize, long idleTimeoutMillis) {
+    this.maxSize = maxSize;
+    this.maxTotalSize = maxTotalSize;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+  }
+
+  public static FileUploads getInstance() {
+    return instance;
+  }
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  public long getMaxTotalSize() {
+    return maxTotalSize;
+  }
+
+  public long getIdleTimeoutMillis() {
+    return idleTimeoutMillis;
+  }
+
+  /** Number of open uploads, including rejected and evicted ones that are not completed yet */
+  public int getOpenUploads() {
+    return uploads.size();
+  }
+
+  /** Bytes held in the temp files of open uploads */
+  public long getBytesHeld() {
+    return bytesHeld.get();
+  }
+
+  /** Number of uploads rejected for their size since start */
+  public long getRejectedUploads() {
+    return rejectedUploads.get();
+  }
+
+  /** Number of abandoned uploads evicted since start */
+  public long getEvictedUploads() {
+    return evictedUploads.get();
+  }
+
+  /**
+   * Appends a chunk to the upload with the given stream id, starting the upload on the first chunk.
+   *
+   * @param streamId ID of the stream
+   * @param chunk The chunk
+   * @throws IOException If the chunk cannot be written to the temp file
+   */
+  public void append(String streamId, InputStream chunk) throws IOException {
+    Upload upload = uploads.computeIfAbsent(streamId, id -> new Upload());
+    synchronized (upload) {
+      upload.lastAccess = System.currentTimeMillis();
+      if (upload.rejection != null || upload.evicted) {
+        return;
+      }
+      if (upload.path == null) {
+        upload.path = Files.createTempFile("finc-upload-", ".tmp");
+      }
+      try (OutputStream out = Files.newOutputStream(upload.path, StandardOpenOption.APPEND)) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = chunk.read(buffer)) != -1) {
+          if (upload.size + read > maxSize) {
+            upload.rejection = "File exceeds maximum size of " + maxSize + " bytes";
+            break;
+          }
+          if (bytesHeld.addAndGet(read) > maxTotalSize) {
+            bytesHeld.addAndGet(-read);
+            upload.rejection =
+                "Open uploads exceed their total maximum size of " + maxTotalSize + " bytes";
+            break;
+          }
+          upload.size += read;
+          out.write(buffer, 0, read);
+          upload.digest.update(buffer, 0, read);
+        }
+      }
+      if (upload.rejection != null) {
+        logger.warn("Discarding upload {}: {}", streamId, upload.rejection);
+        rejectedUploads.incrementAndGet();
+        release(upload);
+      }
+    }
+  }
+
+  /**
+   * Finishes the upload with the given stream id. The caller owns the returned temp file and has to
+   * delete it.
+   *
+   * @param streamId ID of the stream
+   * @return The temp file holding the uploaded content and the digest of the content
+   * @throws FileTooLargeException If the upload was rejected for its size
+   * @throws IOException If the upload was evicted or there was no chunk and an empty temp file
+   *     cannot be created
+   */
+  public CompletedUpload complete(String streamId) throws FileTooLargeException, IOException {
+    Upload upload = uploads.remove(streamId);
+    if (upload == null) {
+      upload = new Upload();
+    }
+    synchronized (upload) {
+      if (upload.rejection != null) {
+        throw new FileTooLargeException(upload.rejection);
+      }
+      if (upload.evicted) {
+        throw new IOException("Upload " + streamId + " was evicted after being idle");
+      }
+      Path path = upload.path == null ? Files.createTempFile("finc-upload-", ".tmp") : upload.path;
+      bytesHeld.addAndGet(-upload.size);
+      return new CompletedUpload(path, ContentDigest.toHex(upload.digest.digest()));
+    }
+  }
+
+  /**
+   * Discards the upload with the given stream id.
+   *
+   * @param streamId ID of the stream
+   */
+  public void abort(String streamId) {
+    Upload upload = uploads.remove(streamId);
+    if (upload != null) {
+      synchronized (upload) {
+        release(upload);
+      }
+    }
+  }
+
+  /**
+   * Discards all uploads that have not been continued within the idle timeout, e.g. because the
+   * client went away. An evicted upload is kept empty for another idle timeout, so late chunks do
+   * not start a new, truncated upload. Deletes files, so it has to be called from a worker thread.
+   *
+   * @return Number of evicted uploads
+   */
+  public int evictIdle() {
+    long now = System.currentTimeMillis();
+    int evicted = 0;
+    for (Map.Entry<String, Upload> entry : uploads.entrySet()) {
+      Upload upload = entry.getValue();
+      synchronized (upload) {
+        if (upload.lastAccess >= now - idleTimeoutMillis) {
+          continue;
+        }
+        if (upload.rejection == null && !upload.evicted) {
+          logger.warn("Evicting abandoned upload {}", entry.getKey());
+          release(upload);
+          upload.evicted = true;
+          upload.lastAccess = now;
+          evicted++;
+        } else {
+          uploads.remove(entry.getKey(), upload);
+        }
+      }
+    }
+    evictedUploads.addAndGet(evicted);
+    return evicted;
+  }
+
+  /** Deletes the temp file of the upload and frees its bytes, the caller holds its monitor */
+  private void release(Upload upload) {
+    deleteQuietly(upload.path);
+    upload.path = null;
+    bytesHeld.addAndGet(-upload.size);
+    upload.size = 0;
+  }
+
+  private static void deleteQuietly(Path path) {
+    if (path == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      logger.warn("Cannot delete temp file {}: {}", path, e.getMessage());
+    }
+  }
+
+  /** Thrown if an upload exceeds the maximum size or the total maximum size of open uploads */
+  public static class FileTooLargeException extends Exception {
+
+    public FileTooLargeException(String message) {
+      super(message);
+    }
+  }
+
+  /** A completed upload, its temp file is owned by the caller */
+  public static class CompletedUpload {
+
+    private final Path path;
+    private final String digest;
+
+    CompletedUpload(Path path, String digest) {
+      this.path = path;
+      this.digest = digest;
+    }
+
+    public Path getPath() {
+      return path;
+    }
+
+    public String getDigest() {
+      return digest;
+    }
+  }
+
+  private static class Upload {
+
+    private final MessageDigest digest = ContentDigest.newDigest();
+    private Path path;
+    private long size;
+    private long lastAccess = System.currentTimeMillis();
+    private String rejection;
+    private boolean evicted;
+  }
+}
@@ -0,0 +1,72 @@
+-- Selections of metadata collections by isil, kept in sync with metadata_collections.selectedBy.
+-- Allows finc-select to look up the collections (not) selected by an isil with a B-tree index
+-- instead of matching the selectedBy arrays of all collections.
+
+CREATE TABLE IF NOT EXISTS collection_selections (
+  collection_id UUID NOT NULL REFERENCES metadata_collections (id) ON DELETE CASCADE,
+  isil TEXT NOT NULL,
+  PRIMARY KEY (collection_id, isil)
+);
+
+CREATE INDEX IF NOT EXISTS collection_selections_isil_idx
+  ON collection_selections (isil, collection_id);
+
+TRUNCATE collection_selections;
+
+INSERT INTO collection_selections (collection_id, isil)
+SELECT  DISTINCT c.id, i.isil
+FROM    metadata_collections AS c,
+        jsonb_array_elements_text(
+          CASE WHEN jsonb_typeof(c.jsonb->'selectedBy') = 'array' THEN c.jsonb->'selectedBy' ELSE '[]' END
+        ) AS i(isil);
+
+CREATE OR REPLACE FUNCTION sync_collection_selections() RETURNS TRIGGER AS
+$BODY$
+BEGIN
+  -- Deletions of collections are handled by the foreign key
+  IF TG_OP = 'INSERT' THEN
+    INSERT INTO collection_selections (collection_id, isil)
+    SELECT  n.id, i.isil
+    FROM    new_collections AS n,
+            jsonb_array_elements_text(
+              CASE WHEN jsonb_typeof(n.jsonb->'selectedBy') = 'array' THEN n.jsonb->'selectedBy' ELSE '[]' END
+            ) AS i(isil)
+    ON CONFLICT DO NOTHING;
+  ELSIF TG_OP = 'UPDATE' THEN
+    WITH changed AS (
+      SELECT  n.id,
+              CASE WHEN jsonb_typeof(n.jsonb->'selectedBy') = 'array' THEN n.jsonb->'selectedBy' ELSE '[]' END
+                AS selectedBy
+      FROM    new_collections AS n
+              JOIN old_collections AS o ON o.id = n.id
+      WHERE   n.jsonb->'selectedBy' IS DISTINCT FROM o.jsonb->'selectedBy'
+    ), removed AS (
+      DELETE FROM collection_selections AS s
+      USING   changed AS c
+      WHERE   s.collection_id = c.id
+              AND NOT c.selectedBy ? s.isil
+    )
+    INSERT INTO collection_selections (collection_id, isil)
+    SELECT  c.id, i.isil
+    FROM    changed AS c,
+            jsonb_array_elements_text(c.selectedBy) AS i(isil)
+    ON CONFLICT DO NOTHING;
+  END IF;
+  RETURN NULL;
+END;
+$BODY$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS sync_collection_selections_on_insert ON metadata_collections;
+DROP TRIGGER IF EXISTS sync_collection_selections_on_update ON metadata_collections;
+
+CREATE TRIGGER sync_collection_selections_on_insert
+AFTER INSERT ON metadata_collections
+REFERENCING NEW TABLE AS new_collections
+FOR EACH STATEMENT
+EXECUTE PROCEDURE sync_collection_selections();
+
+CREATE TRIGGER sync_collection_selections_on_update
+AFTER UPDATE ON metadata_collections
+REFERENCING OLD TABLE AS old_collections NEW TABLE AS new_collections
+FOR EACH STATEMENT
+EXECUTE PROCEDURE sync_collection_selections();
@@ -0,0 +1,64 @@
+-- Content addressed storage of files. Byte-identical files share one row of file_contents, keyed
+-- by the hex encoded SHA-256 of the content. refcount is the number of files referencing a
+-- content, it is maintained by the trigger below which also removes unreferenced contents.
+-- A content may be stored compressed, encoding is then e.g. 'gzip' and length is the length of
+-- the decompressed content. content_type is detected on upload, it is unknown for migrated
+-- contents.
+
+CREATE TABLE IF NOT EXISTS file_contents (
+  digest        TEXT PRIMARY KEY,
+  content       BYTEA NOT NULL,
+  length        BIGINT NOT NULL,
+  encoding      TEXT,
+  content_type  TEXT,
+  refcount      INTEGER NOT NULL DEFAULT 0
+);
+
+ALTER TABLE files ADD COLUMN IF NOT EXISTS digest TEXT;
+
+-- existing files keep an unknown created_date
+ALTER TABLE files ADD COLUMN IF NOT EXISTS created_date TIMESTAMPTZ;
+ALTER TABLE files ALTER COLUMN created_date SET DEFAULT now();
+
+CREATE INDEX IF NOT EXISTS files_digest_idx ON files (digest);
+
+CREATE OR REPLACE FUNCTION count_file_content_references() RETURNS TRIGGER AS
+$BODY$
+BEGIN
+  -- increment first, so an update keeping the digest does not remove the content
+  IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.digest IS NOT NULL THEN
+    UPDATE file_contents SET refcount = refcount + 1 WHERE digest = NEW.digest;
+  END IF;
+  IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.digest IS NOT NULL THEN
+    UPDATE file_contents SET refcount = refcount - 1 WHERE digest = OLD.digest;
+    DELETE FROM file_contents WHERE digest = OLD.digest AND refcount <= 0;
+  END IF;
+  RETURN NULL;
+END;
+$BODY$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS count_file_content_references ON files;
+
+CREATE TRIGGER count_file_content_references
+AFTER INSERT OR UPDATE OF digest OR DELETE ON files
+FOR EACH ROW
+EXECUTE PROCEDURE count_file_content_references();
+
+-- Move the contents stored in the files table, see files_content.sql
+
+DO $$
+BEGIN
+  IF EXISTS (SELECT 1 FROM information_schema.columns
+             WHERE table_schema = current_schema() AND table_name = 'files'
+               AND column_name = 'content') THEN
+    INSERT INTO file_contents (digest, content, length)
+    SELECT encode(sha256(content), 'hex'), content, octet_length(content) FROM files
+    WHERE  digest IS NULL AND content IS NOT NULL
+    ON CONFLICT (digest) DO NOTHING;
+
+    UPDATE files SET digest = encode(sha256(content), 'hex')
+    WHERE  digest IS NULL AND content IS NOT NULL;
+
+    ALTER TABLE files DROP COLUMN content;
+  END IF;
+END $$;
@@ -0,0 +1,10 @@
+-- The content of a file is stored as bytea next to its metadata instead of as base64 string in
+-- jsonb->'data'. Existing files are migrated once. file_contents.sql moves the content on to
+-- the content addressed table file_contents.
+
+ALTER TABLE files ADD COLUMN IF NOT EXISTS content BYTEA;
+
+UPDATE  files
+SET     content = decode(jsonb->>'data', 'base64'),
+        jsonb = jsonb - 'data'
+WHERE   jsonb ? 'data';
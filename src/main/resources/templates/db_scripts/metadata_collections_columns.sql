@@ -0,0 +1,17 @@
+-- Generated columns for the fields the select-all path and the selected state functions filter
+-- on, so that they are read from an index instead of being extracted from jsonb for every row.
+-- Column names must not match a property of the collection: RMB passes additional columns to the
+-- setter of the same name, e.g. usage_restricted to setUsageRestricted.
+
+ALTER TABLE metadata_collections
+  ADD COLUMN IF NOT EXISTS md_source_id TEXT GENERATED ALWAYS AS (jsonb->'mdSource'->>'id') STORED;
+
+ALTER TABLE metadata_collections
+  ADD COLUMN IF NOT EXISTS usage_restriction TEXT GENERATED ALWAYS AS (jsonb->>'usageRestricted') STORED;
+
+CREATE INDEX IF NOT EXISTS metadata_collections_md_source_id_usage_restriction_idx
+  ON metadata_collections (md_source_id, usage_restriction);
+
+-- Select-all processes the collections of metadata sources in chunks in the order of this index
+CREATE INDEX IF NOT EXISTS metadata_collections_md_source_id_id_idx
+  ON metadata_collections (md_source_id, id);
@@ -0,0 +1,8 @@
+-- Indexes for jsonb containment queries on selectedBy and permittedFor, used by finc-select
+-- queries for the selected resp. permitted state with query mode "jsonb".
+
+CREATE INDEX IF NOT EXISTS metadata_collections_selectedby_path_idx
+  ON metadata_collections USING GIN ((jsonb->'selectedBy') jsonb_path_ops);
+
+CREATE INDEX IF NOT EXISTS metadata_collections_permittedfor_path_idx
+  ON metadata_collections USING GIN ((jsonb->'permittedFor') jsonb_path_ops);
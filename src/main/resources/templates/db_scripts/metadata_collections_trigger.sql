@@ -1,44 +1,64 @@
-CREATE OR REPLACE FUNCTION count_selected_collections_per_isil(
-  mdSourceId TEXT
-  ) RETURNS TABLE(c bigint, isil text, mdSource text) AS
-$$
-  SELECT  COUNT(i) AS c, i, s
-	FROM (
-	    SELECT  jsonb_array_elements_text(jsonb->'selectedBy') AS i,
-			        JSONB->'mdSource'->>'id' AS s
-			FROM    metadata_collections
-		  WHERE   JSONB->'mdSource'->>'id' = $1) AS sub
-			GROUP BY i, s;
-$$
-LANGUAGE SQL;
+-- Counters of the collections of each metadata source and of the collections selected per isil.
+-- The statement triggers below maintain them with deltas, so that the selected state of a source
+-- is derived from one row per isil instead of counting all of its collections.
 
+CREATE TABLE IF NOT EXISTS metadata_source_collection_counts (
+  md_source_id TEXT PRIMARY KEY,
+  total BIGINT NOT NULL DEFAULT 0
+);
 
-CREATE OR REPLACE FUNCTION add_null_to_counted_selected_collections(
- mdSourceId TEXT
- ) RETURNS TABLE(isil text, c bigint, mdSource text) AS
-$$
-  SELECT  isils.jsonb->>'isil' AS i,
-	  			CASE WHEN sub.c IS NULL THEN 0
-		  		ELSE sub.c
-			  	END AS c,
-			  	sub.mdSource
-  FROM    isils
-	    		LEFT JOIN count_selected_collections_per_isil($1) AS sub
-			    ON (isils.jsonb->>'isil' = sub.isil);
-$$
-LANGUAGE SQL;
+CREATE TABLE IF NOT EXISTS metadata_source_selection_counts (
+  md_source_id TEXT NOT NULL,
+  isil TEXT NOT NULL,
+  selected BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (md_source_id, isil)
+);
 
-CREATE OR REPLACE FUNCTION calc_diff_to_counted_selected_collections(
- mdSourceId TEXT
- ) RETURNS TABLE(isil text, mdSource text, count bigint, diff bigint) AS
+TRUNCATE metadata_source_collection_counts, metadata_source_selection_counts;
+
+INSERT INTO metadata_source_collection_counts (md_source_id, total)
+SELECT  md_source_id, COUNT(*)
+FROM    metadata_collections
+WHERE   md_source_id IS NOT NULL
+GROUP BY 1;
+
+INSERT INTO metadata_source_selection_counts (md_source_id, isil, selected)
+SELECT  c.md_source_id, i.isil, COUNT(*)
+FROM    metadata_collections AS c,
+        jsonb_array_elements_text(
+          CASE WHEN jsonb_typeof(c.jsonb->'selectedBy') = 'array' THEN c.jsonb->'selectedBy' ELSE '[]' END
+        ) AS i(isil)
+WHERE   c.md_source_id IS NOT NULL
+GROUP BY 1, 2;
+
+-- Applies changed collections given as [{"md_source_id": ..., "selected_by": [...], "delta": 1|-1}]
+-- Counters whose deltas sum up to 0 are left alone, so changing the isils of a collection only locks
+-- the counters of the isils added or removed. Counters are locked in the order of their keys, so
+-- that concurrent statements changing several metadata sources cannot deadlock.
+CREATE OR REPLACE FUNCTION apply_collection_count_deltas(
+  changes jsonb
+ ) RETURNS void AS
 $$
-  SELECT  sub.isil,
-          sub.mdSource,
-          sub.c,
-          ( SELECT COUNT(*)
-            FROM metadata_collections
-            WHERE metadata_collections.JSONB->'mdSource'->>'id' = $1) - sub.c AS diff
-  FROM    add_null_to_counted_selected_collections($1) AS sub;
+  INSERT INTO metadata_source_collection_counts AS t (md_source_id, total)
+  SELECT  c.md_source_id, SUM(c.delta)
+  FROM    jsonb_to_recordset($1) AS c(md_source_id text, selected_by jsonb, delta bigint)
+  WHERE   c.md_source_id IS NOT NULL
+  GROUP BY c.md_source_id
+  HAVING  SUM(c.delta) <> 0
+  ORDER BY c.md_source_id
+  ON CONFLICT (md_source_id) DO UPDATE SET total = t.total + EXCLUDED.total;
+
+  INSERT INTO metadata_source_selection_counts AS s (md_source_id, isil, selected)
+  SELECT  c.md_source_id, i.isil, SUM(c.delta)
+  FROM    jsonb_to_recordset($1) AS c(md_source_id text, selected_by jsonb, delta bigint),
+          jsonb_array_elements_text(
+            CASE WHEN jsonb_typeof(c.selected_by) = 'array' THEN c.selected_by ELSE '[]' END
+          ) AS i(isil)
+  WHERE   c.md_source_id IS NOT NULL
+  GROUP BY c.md_source_id, i.isil
+  HAVING  SUM(c.delta) <> 0
+  ORDER BY c.md_source_id, i.isil
+  ON CONFLICT (md_source_id, isil) DO UPDATE SET selected = s.selected + EXCLUDED.selected;
 $$
 LANGUAGE SQL;
 
@@ -46,15 +66,23 @@ CREATE OR REPLACE FUNCTION calc_selected_state(
  mdSourceId TEXT
  ) RETURNS TABLE(isil text, selected text) AS
 $$
-  SELECT  sub.isil,
-          CASE WHEN sub.diff = 0 THEN 'all'
-          WHEN sub.count = 0 THEN 'none'
+  SELECT  isils.jsonb->>'isil',
+          CASE WHEN COALESCE(s.selected, 0) = COALESCE(t.total, 0) THEN 'all'
+          WHEN COALESCE(s.selected, 0) = 0 THEN 'none'
           ELSE 'some'
           END AS selected
-  FROM calc_diff_to_counted_selected_collections($1) AS sub;
+  FROM    isils
+          LEFT JOIN metadata_source_selection_counts AS s
+          ON (s.md_source_id = $1 AND s.isil = isils.jsonb->>'isil')
+          LEFT JOIN metadata_source_collection_counts AS t
+          ON (t.md_source_id = $1);
 $$
 LANGUAGE SQL;
 
+DROP FUNCTION IF EXISTS calc_diff_to_counted_selected_collections(TEXT);
+DROP FUNCTION IF EXISTS add_null_to_counted_selected_collections(TEXT);
+DROP FUNCTION IF EXISTS count_selected_collections_per_isil(TEXT);
+
 CREATE OR REPLACE FUNCTION calc_selected_state_as_json(
  mdSourceId TEXT
  ) RETURNS TABLE(selected jsonb) AS
@@ -79,38 +107,95 @@ END;
 $BODY$
 LANGUAGE plpgsql;
 
-CREATE OR REPLACE FUNCTION update_sources_selected_by_on_update() RETURNS TRIGGER AS
+-- Statement-level triggers recompute the selected state of each affected metadata source once per
+-- statement instead of once per changed row. Transition tables cannot be shared by triggers with
+-- several events, so there is one trigger per event, all executing the same function.
+
+DROP TRIGGER IF EXISTS update_metadata_sources_selected_by_on_insert ON metadata_collections;
+DROP TRIGGER IF EXISTS update_metadata_sources_selected_by_on_update ON metadata_collections;
+DROP TRIGGER IF EXISTS update_metadata_sources_selected_by_on_delete ON metadata_collections;
+DROP FUNCTION IF EXISTS update_sources_selected_by_on_update();
+DROP FUNCTION IF EXISTS update_sources_selected_by_on_delete();
+
+CREATE OR REPLACE FUNCTION update_sources_selected_by_per_statement() RETURNS TRIGGER AS
 $BODY$
-DECLARE selected jsonb;
+DECLARE changes jsonb;
 BEGIN
-  SELECT calc_selected_state_as_json(NEW.jsonb->'mdSource'->>'id'::text) INTO selected;
-  IF selected IS NOT NULL THEN
-    UPDATE metadata_sources SET jsonb = jsonb_set(jsonb, '{selectedBy}', selected, TRUE) WHERE jsonb->>'id' = NEW.jsonb->'mdSource'->>'id';
+  IF TG_OP = 'INSERT' THEN
+    SELECT  jsonb_agg(jsonb_build_object('md_source_id', md_source_id,
+              'selected_by', jsonb->'selectedBy', 'delta', 1))
+    INTO    changes
+    FROM    new_collections;
+  ELSIF TG_OP = 'UPDATE' THEN
+    -- Only changes of selectedBy or of the metadata source affect the counters
+    WITH changed AS (
+      SELECT  n.md_source_id AS newSourceId, n.jsonb->'selectedBy' AS newSelectedBy,
+              o.md_source_id AS oldSourceId, o.jsonb->'selectedBy' AS oldSelectedBy
+      FROM    new_collections n
+              JOIN old_collections o ON o.id = n.id
+      WHERE   n.jsonb->'selectedBy' IS DISTINCT FROM o.jsonb->'selectedBy'
+              OR n.md_source_id IS DISTINCT FROM o.md_source_id
+    )
+    SELECT  jsonb_agg(sub.change)
+    INTO    changes
+    FROM    (
+              SELECT  jsonb_build_object('md_source_id', newSourceId,
+                        'selected_by', newSelectedBy, 'delta', 1)
+              FROM    changed
+              UNION ALL
+              SELECT  jsonb_build_object('md_source_id', oldSourceId,
+                        'selected_by', oldSelectedBy, 'delta', -1)
+              FROM    changed
+            ) AS sub(change);
+  ELSIF TG_OP = 'DELETE' THEN
+    SELECT  jsonb_agg(jsonb_build_object('md_source_id', md_source_id,
+              'selected_by', jsonb->'selectedBy', 'delta', -1))
+    INTO    changes
+    FROM    old_collections;
+  END IF;
+  IF changes IS NULL THEN
+    RETURN NULL;
   END IF;
-  RETURN NEW;
-END;
-$BODY$ LANGUAGE plpgsql;
 
-CREATE OR REPLACE FUNCTION update_sources_selected_by_on_delete() RETURNS TRIGGER AS
-$BODY$
-DECLARE selected jsonb;
-BEGIN
-  SELECT calc_selected_state_as_json(OLD.jsonb->'mdSource'->>'id'::text) INTO selected;
-  UPDATE metadata_sources SET jsonb = jsonb_set(jsonb, '{selectedBy}', selected, TRUE) WHERE jsonb->>'id' = OLD.jsonb->'mdSource'->>'id';
-  RETURN OLD;
+  -- Bulk operations set this flag for their transaction and call update_selected_state once
+  IF current_setting('finc.defer_selected_state', true) = 'on' THEN
+    PERFORM apply_collection_count_deltas(changes);
+    RETURN NULL;
+  END IF;
+  -- In async mode the deltas are only queued per metadata source, the counters and the selected
+  -- state are updated when the queue is drained
+  IF (SELECT async FROM selected_state_settings) THEN
+    INSERT INTO selected_state_queue (md_source_id, changes)
+    SELECT  c->>'md_source_id', jsonb_agg(c)
+    FROM    jsonb_array_elements(changes) AS c
+    WHERE   c->>'md_source_id' IS NOT NULL
+    GROUP BY 1;
+    RETURN NULL;
+  END IF;
+  PERFORM apply_collection_count_deltas(changes);
+  PERFORM update_selected_state(sub.mdSourceId)
+  FROM    (
+            SELECT DISTINCT c->>'md_source_id' FROM jsonb_array_elements(changes) AS c
+          ) AS sub(mdSourceId)
+  WHERE   sub.mdSourceId IS NOT NULL;
+  RETURN NULL;
 END;
 $BODY$ LANGUAGE plpgsql;
 
-DROP TRIGGER IF EXISTS update_metadata_sources_selected_by_on_update ON metadata_collections;
+CREATE TRIGGER update_metadata_sources_selected_by_on_insert
+AFTER INSERT ON metadata_collections
+REFERENCING NEW TABLE AS new_collections
+FOR EACH STATEMENT
+EXECUTE PROCEDURE update_sources_selected_by_per_statement();
 
 CREATE TRIGGER update_metadata_sources_selected_by_on_update
-AFTER INSERT OR UPDATE ON metadata_collections
-FOR EACH ROW
-EXECUTE PROCEDURE update_sources_selected_by_on_update();
-
-DROP TRIGGER IF EXISTS update_metadata_sources_selected_by_on_delete ON metadata_collections;
+AFTER UPDATE ON metadata_collections
+REFERENCING OLD TABLE AS old_collections NEW TABLE AS new_collections
+FOR EACH STATEMENT
+EXECUTE PROCEDURE update_sources_selected_by_per_statement();
 
 CREATE TRIGGER update_metadata_sources_selected_by_on_delete
 AFTER DELETE ON metadata_collections
-FOR EACH ROW
-EXECUTE PROCEDURE update_sources_selected_by_on_delete();
+REFERENCING OLD TABLE AS old_collections
+FOR EACH STATEMENT
+EXECUTE PROCEDURE update_sources_selected_by_per_statement();
@@ -0,0 +1,105 @@
+-- Contacts of all metadata sources, one per name, kept in sync with metadata_sources.contacts.
+-- Replaces the former view of the same name, which expanded the contacts of all metadata sources
+-- on every read.
+
+DO $$
+BEGIN
+  IF EXISTS (SELECT 1 FROM pg_views
+             WHERE schemaname = current_schema() AND viewname = 'metadata_sources_contacts') THEN
+    DROP VIEW metadata_sources_contacts;
+  END IF;
+END $$;
+
+CREATE TABLE IF NOT EXISTS metadata_sources_contacts (
+  name TEXT PRIMARY KEY,
+  jsonb JSONB NOT NULL
+);
+
+TRUNCATE metadata_sources_contacts;
+
+INSERT INTO metadata_sources_contacts (name, jsonb)
+SELECT  DISTINCT ON (c.jsonb->>'name') c.jsonb->>'name', c.jsonb
+FROM    metadata_sources AS s,
+        jsonb_array_elements(
+          CASE WHEN jsonb_typeof(s.jsonb->'contacts') = 'array' THEN s.jsonb->'contacts' ELSE '[]' END
+        ) AS c(jsonb)
+WHERE   c.jsonb->>'name' IS NOT NULL
+ORDER BY c.jsonb->>'name';
+
+-- Rebuilds the contacts with the given names from all metadata sources still having them.
+-- Concurrent transactions may refresh the same name; each of them deleted it, but the contact
+-- inserted by the one committing first must not fail the other one with a duplicate key, so the
+-- later one updates it instead.
+CREATE OR REPLACE FUNCTION refresh_metadata_sources_contacts(
+  names TEXT[]
+ ) RETURNS VOID AS
+$BODY$
+  DELETE FROM metadata_sources_contacts WHERE name = ANY(names);
+
+  INSERT INTO metadata_sources_contacts (name, jsonb)
+  SELECT  DISTINCT ON (c.jsonb->>'name') c.jsonb->>'name', c.jsonb
+  FROM    metadata_sources AS s,
+          jsonb_array_elements(
+            CASE WHEN jsonb_typeof(s.jsonb->'contacts') = 'array' THEN s.jsonb->'contacts' ELSE '[]' END
+          ) AS c(jsonb)
+  WHERE   c.jsonb->>'name' = ANY(names)
+  ORDER BY c.jsonb->>'name'
+  ON CONFLICT (name) DO UPDATE SET jsonb = EXCLUDED.jsonb;
+$BODY$ LANGUAGE sql;
+
+CREATE OR REPLACE FUNCTION update_metadata_sources_contacts() RETURNS TRIGGER AS
+$BODY$
+DECLARE
+  names TEXT[];
+BEGIN
+  IF TG_OP = 'INSERT' THEN
+    SELECT  array_agg(DISTINCT c->>'name') INTO names
+    FROM    new_sources AS n,
+            jsonb_array_elements(
+              CASE WHEN jsonb_typeof(n.jsonb->'contacts') = 'array' THEN n.jsonb->'contacts' ELSE '[]' END
+            ) AS c;
+  ELSIF TG_OP = 'UPDATE' THEN
+    SELECT  array_agg(DISTINCT c->>'name') INTO names
+    FROM    new_sources AS n
+            JOIN old_sources AS o ON o.id = n.id,
+            jsonb_array_elements(
+              (CASE WHEN jsonb_typeof(n.jsonb->'contacts') = 'array' THEN n.jsonb->'contacts' ELSE '[]' END)
+              || (CASE WHEN jsonb_typeof(o.jsonb->'contacts') = 'array' THEN o.jsonb->'contacts' ELSE '[]' END)
+            ) AS c
+    WHERE   n.jsonb->'contacts' IS DISTINCT FROM o.jsonb->'contacts';
+  ELSE
+    SELECT  array_agg(DISTINCT c->>'name') INTO names
+    FROM    old_sources AS o,
+            jsonb_array_elements(
+              CASE WHEN jsonb_typeof(o.jsonb->'contacts') = 'array' THEN o.jsonb->'contacts' ELSE '[]' END
+            ) AS c;
+  END IF;
+
+  IF names IS NOT NULL THEN
+    PERFORM refresh_metadata_sources_contacts(names);
+  END IF;
+  RETURN NULL;
+END;
+$BODY$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS update_metadata_sources_contacts_on_insert ON metadata_sources;
+DROP TRIGGER IF EXISTS update_metadata_sources_contacts_on_update ON metadata_sources;
+DROP TRIGGER IF EXISTS update_metadata_sources_contacts_on_delete ON metadata_sources;
+
+CREATE TRIGGER update_metadata_sources_contacts_on_insert
+AFTER INSERT ON metadata_sources
+REFERENCING NEW TABLE AS new_sources
+FOR EACH STATEMENT
+EXECUTE PROCEDURE update_metadata_sources_contacts();
+
+CREATE TRIGGER update_metadata_sources_contacts_on_update
+AFTER UPDATE ON metadata_sources
+REFERENCING OLD TABLE AS old_sources NEW TABLE AS new_sources
+FOR EACH STATEMENT
+EXECUTE PROCEDURE update_metadata_sources_contacts();
+
+CREATE TRIGGER update_metadata_sources_contacts_on_delete
+AFTER DELETE ON metadata_sources
+REFERENCING OLD TABLE AS old_sources
+FOR EACH STATEMENT
+EXECUTE PROCEDURE update_metadata_sources_contacts();
@@ -1,15 +1,88 @@
-CREATE OR REPLACE FUNCTION update_collections_md_source_name_on_update() RETURNS TRIGGER AS
+-- Renaming a metadata source no longer rewrites all of its collections within the same statement.
+-- The trigger only records the new label; the module propagates it to the collections in bounded
+-- batches in the background, see propagate_md_source_labels.
+
+CREATE TABLE IF NOT EXISTS md_source_label_propagation (
+  md_source_id TEXT PRIMARY KEY,
+  label JSONB,
+  state TEXT NOT NULL,
+  total INT,
+  processed INT NOT NULL DEFAULT 0,
+  queued_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  completed_at TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS md_source_label_propagation_state_idx
+  ON md_source_label_propagation (state, queued_at);
+
+DROP TRIGGER IF EXISTS update_metadata_collections_on_update_source ON metadata_sources;
+DROP FUNCTION IF EXISTS update_collections_md_source_name_on_update();
+
+CREATE OR REPLACE FUNCTION queue_md_source_label_propagation() RETURNS TRIGGER AS
 $BODY$
 BEGIN
-  UPDATE metadata_collections SET jsonb = jsonb_set(jsonb, '{mdSource, name}', NEW.jsonb->'label', TRUE) WHERE jsonb->'mdSource'->>'id' = NEW.jsonb->>'id';
+  -- A new rename supersedes a pending one
+  INSERT INTO md_source_label_propagation AS p (md_source_id, label, state)
+  VALUES (NEW.jsonb->>'id', NEW.jsonb->'label', 'pending')
+  ON CONFLICT (md_source_id) DO UPDATE
+  SET label = EXCLUDED.label, state = 'pending', total = NULL, processed = 0, queued_at = now(),
+      completed_at = NULL;
   RETURN NEW;
 END;
 $BODY$ LANGUAGE plpgsql;
 
-DROP TRIGGER IF EXISTS update_metadata_collections_on_update_source ON metadata_sources;
-
 CREATE TRIGGER update_metadata_collections_on_update_source
 AFTER UPDATE ON metadata_sources
 FOR EACH ROW
 WHEN (OLD.jsonb->>'label' IS DISTINCT FROM NEW.jsonb->>'label')
-EXECUTE PROCEDURE update_collections_md_source_name_on_update();
+EXECUTE PROCEDURE queue_md_source_label_propagation();
+
+-- Propagates the label of the longest pending metadata source to at most batchSize of its
+-- collections. Only collections still carrying another name are rewritten; neither selectedBy
+-- nor the metadata source change, so the selected state is not recomputed.
+-- Returns false if there was nothing to propagate.
+CREATE OR REPLACE FUNCTION propagate_md_source_labels(
+  batchSize INT
+ ) RETURNS BOOLEAN AS
+$BODY$
+DECLARE
+  job md_source_label_propagation;
+  updated INT;
+BEGIN
+  SELECT  * INTO job
+  FROM    md_source_label_propagation
+  WHERE   state = 'pending'
+  ORDER BY queued_at
+  LIMIT   1
+  FOR UPDATE SKIP LOCKED;
+  IF NOT FOUND THEN
+    RETURN FALSE;
+  END IF;
+
+  IF job.total IS NULL THEN
+    SELECT  count(*) INTO job.total
+    FROM    metadata_collections
+    WHERE   md_source_id = job.md_source_id
+            AND jsonb->'mdSource'->'name' IS DISTINCT FROM job.label;
+  END IF;
+
+  UPDATE metadata_collections
+  SET    jsonb = jsonb_set(jsonb, '{mdSource, name}', COALESCE(job.label, 'null'::jsonb), TRUE)
+  WHERE  id IN (
+           SELECT  id
+           FROM    metadata_collections
+           WHERE   md_source_id = job.md_source_id
+                   AND jsonb->'mdSource'->'name' IS DISTINCT FROM job.label
+           LIMIT   batchSize
+         );
+  GET DIAGNOSTICS updated = ROW_COUNT;
+
+  UPDATE md_source_label_propagation
+  SET    total = job.total,
+         processed = LEAST(processed + updated, job.total),
+         state = CASE WHEN updated < batchSize THEN 'completed' ELSE 'pending' END,
+         completed_at = CASE WHEN updated < batchSize THEN now() END
+  WHERE  md_source_id = job.md_source_id;
+  RETURN TRUE;
+END;
+$BODY$ LANGUAGE plpgsql;
@@ -0,0 +1,87 @@
+-- Queue for recomputing the selected state of metadata sources asynchronously. If async is set in
+-- selected_state_settings, the triggers on metadata_collections only queue the counter deltas of the
+-- affected metadata sources and the module drains the queue in the background.
+
+CREATE TABLE IF NOT EXISTS selected_state_settings (
+  id INT PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+  async BOOLEAN NOT NULL DEFAULT FALSE,
+  last_drained_at TIMESTAMPTZ
+);
+
+INSERT INTO selected_state_settings (id) VALUES (1) ON CONFLICT DO NOTHING;
+
+-- The former queue held the metadata sources only, their counters were already up to date
+DO $$
+BEGIN
+  IF EXISTS (
+    SELECT  1
+    FROM    information_schema.tables
+    WHERE   table_schema = current_schema() AND table_name = 'selected_state_queue'
+  ) AND NOT EXISTS (
+    SELECT  1
+    FROM    information_schema.columns
+    WHERE   table_schema = current_schema() AND table_name = 'selected_state_queue'
+            AND column_name = 'changes'
+  ) THEN
+    PERFORM update_selected_state(md_source_id) FROM selected_state_queue;
+    DROP TABLE selected_state_queue;
+  END IF;
+END $$;
+
+-- Each entry holds the counter deltas of one metadata source from one statement, in the format of
+-- apply_collection_count_deltas. Entries are only appended, so collection writes in async mode do
+-- not lock any row shared with concurrent writers of the same metadata source.
+CREATE TABLE IF NOT EXISTS selected_state_queue (
+  id BIGSERIAL PRIMARY KEY,
+  md_source_id TEXT NOT NULL,
+  changes JSONB NOT NULL,
+  queued_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS selected_state_queue_md_source_id_idx ON selected_state_queue (md_source_id);
+CREATE INDEX IF NOT EXISTS selected_state_queue_queued_at_idx ON selected_state_queue (queued_at);
+
+-- Applies the queued deltas and recomputes the selected state of at most batchSize queued metadata
+-- sources, oldest first. Entries locked by a concurrent drain are skipped and stay queued.
+CREATE OR REPLACE FUNCTION drain_selected_state_queue(
+  batchSize INT
+ ) RETURNS INT AS
+$BODY$
+DECLARE
+  changes jsonb;
+  drained INT;
+BEGIN
+  WITH sources AS (
+    SELECT  md_source_id
+    FROM    selected_state_queue
+    GROUP BY md_source_id
+    ORDER BY min(queued_at)
+    LIMIT   $1
+  ), batch AS (
+    SELECT  q.id
+    FROM    selected_state_queue AS q
+            JOIN sources AS s ON s.md_source_id = q.md_source_id
+    FOR UPDATE OF q SKIP LOCKED
+  ), dequeued AS (
+    DELETE FROM selected_state_queue AS q
+    USING   batch AS b
+    WHERE   q.id = b.id
+    RETURNING q.changes
+  )
+  SELECT  jsonb_agg(c)
+  INTO    changes
+  FROM    dequeued,
+          jsonb_array_elements(dequeued.changes) AS c;
+  IF changes IS NULL THEN
+    RETURN 0;
+  END IF;
+  PERFORM apply_collection_count_deltas(changes);
+  SELECT  COUNT(update_selected_state(sub.mdSourceId))
+  INTO    drained
+  FROM    (
+            SELECT DISTINCT c->>'md_source_id' FROM jsonb_array_elements(changes) AS c
+          ) AS sub(mdSourceId);
+  UPDATE selected_state_settings SET last_drained_at = now();
+  RETURN drained;
+END;
+$BODY$ LANGUAGE plpgsql;
@@ -0,0 +1,64 @@
+package org.folio.finc;
+
+import io.restassured.RestAssured;
+import io.vertx.core.Context;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import java.util.concurrent.TimeUnit;
+import org.folio.postgres.testing.PostgresTesterContainer;
+import org.folio.rest.RestVerticle;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.NetworkUtils;
+import org.folio.rest.utils.Constants;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.runner.RunWith;
+
+/**
+ * Starts the module with the finc tenant on its own database for a benchmark class. Benchmarks are
+ * not part of the regular build, run them with {@code mvn test -Dtest=<benchmark class>}.
+ */
+@RunWith(VertxUnitRunner.class)
+public abstract class AbstractBenchmark {
+
+  protected static final String SCHEMA =
+      PostgresClient.convertToPsqlStandard(Constants.MODULE_TENANT);
+
+  protected static Vertx vertx;
+  protected static Context vertxContext;
+  protected static PostgresClient postgresClient;
+
+  @BeforeClass
+  public static void startModule(TestContext context) throws Exception {
+    vertx = Vertx.vertx();
+    vertxContext = vertx.getOrCreateContext();
+    PostgresClient.setPostgresTester(new PostgresTesterContainer());
+    int port = NetworkUtils.nextFreePort();
+    RestAssured.reset();
+    RestAssured.baseURI = "http://localhost";
+    RestAssured.port = port;
+
+    await(
+        vertx.deployVerticle(
+            RestVerticle.class.getName(),
+            new DeploymentOptions().setConfig(new JsonObject().put("http.port", port))));
+    await(new TenantUtil().postFincTenant(port, vertx, context));
+    postgresClient = PostgresClient.getInstance(vertx, Constants.MODULE_TENANT);
+  }
+
+  @AfterClass
+  public static void stopModule() throws Exception {
+    RestAssured.reset();
+    await(vertx.close());
+    PostgresClient.stopPostgresTester();
+  }
+
+  /** Waits for the future, benchmarks may take a while */
+  protected static <T> T await(Future<T> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(1800, TimeUnit.SECONDS);
+  }
+}
@@ -2,13 +2,19 @@ package org.folio.finc;
 
 import io.restassured.http.ContentType;
 import io.vertx.core.json.Json;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
 import org.folio.rest.jaxrs.model.Isil;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.utils.Constants;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import static io.restassured.RestAssured.given;
@@ -97,6 +103,26 @@ public class ApiTestBase {
     return isilResp;
   }
 
+  /**
+   * Executes SQL on the database of the module under test.
+   *
+   * @param sql The statement, %s is replaced with the module's schema
+   * @param params The parameters of the statement
+   * @return The result
+   */
+  public static RowSet<Row> executeSql(String sql, Tuple params) {
+    String schema = PostgresClient.convertToPsqlStandard(Constants.MODULE_TENANT);
+    try {
+      return PostgresClient.getInstance(ApiTestSuite.getVertx(), Constants.MODULE_TENANT)
+          .execute(String.format(sql, schema), params)
+          .toCompletionStage()
+          .toCompletableFuture()
+          .get(5, TimeUnit.SECONDS);
+    } catch (Exception e) {
+      throw new AssertionError("Cannot execute " + sql, e);
+    }
+  }
+
   public void deleteIsil(String isilId) {
     given()
         .header("X-Okapi-Tenant", TENANT_UBL)
@@ -37,6 +37,7 @@ import java.util.concurrent.TimeoutException;
   ConfigFiltersIT.class,
   ConfigFilesIT.class,
   ConfigContactsIT.class,
+  SelectedStateTriggersIT.class,
   FincSelectFilesIT.class,
   FincSelectFiltersIT.class,
   IsilsIT.class,
@@ -110,6 +111,10 @@ public class ApiTestSuite {
     PostgresClient.stopPostgresTester();
   }
 
+  public static Vertx getVertx() {
+    return vertx;
+  }
+
   public static boolean isNotInitialised() {
     return !initialised;
   }
@@ -5,7 +5,9 @@ import static org.hamcrest.Matchers.equalTo;
 
 import io.restassured.http.ContentType;
 import io.vertx.core.json.Json;
+import java.util.Collections;
 import org.folio.finc.mocks.MockOrganization;
+import org.folio.rest.jaxrs.model.FincConfigMetadataSource;
 import org.junit.Test;
 
 public class ConfigContactsIT extends AbstractMetadataSourcesIT {
@@ -48,4 +50,58 @@ public class ConfigContactsIT extends AbstractMetadataSourcesIT {
         .then()
         .statusCode(204);
   }
+
+  @Test
+  public void checkThatContactsFollowMetadataSourceChanges() {
+    String mockedOkapiUrl = "http://localhost:" + wireMockRule.port();
+
+    MockOrganization.mockOrganizationFound(organizationUUID1234);
+    given()
+        .body(Json.encode(metadataSource1))
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("x-okapi-url", mockedOkapiUrl)
+        .header("content-type", ContentType.JSON)
+        .header("accept", ContentType.JSON)
+        .post(FINC_CONFIG_METADATA_SOURCES_ENDPOINT)
+        .then()
+        .statusCode(201);
+
+    FincConfigMetadataSource withOneContact =
+        Json.decodeValue(Json.encode(metadataSource1), FincConfigMetadataSource.class)
+            .withContacts(Collections.singletonList(metadataSource1.getContacts().get(0)));
+    given()
+        .body(Json.encode(withOneContact))
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("x-okapi-url", mockedOkapiUrl)
+        .header("content-type", ContentType.JSON)
+        .header("accept", ContentType.TEXT)
+        .put(FINC_CONFIG_METADATA_SOURCES_ENDPOINT + "/" + metadataSource1.getId())
+        .then()
+        .statusCode(204);
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("accept", ContentType.JSON)
+        .get(FINC_CONFIG_CONTACTS_ENDPOINT)
+        .then()
+        .statusCode(200)
+        .body("contacts.size()", equalTo(1))
+        .body("contacts[0].name", equalTo(metadataSource1.getContacts().get(0).getName()));
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("x-okapi-url", mockedOkapiUrl)
+        .header("accept", ContentType.TEXT)
+        .delete(FINC_CONFIG_METADATA_SOURCES_ENDPOINT + "/" + metadataSource1.getId())
+        .then()
+        .statusCode(204);
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("accept", ContentType.JSON)
+        .get(FINC_CONFIG_CONTACTS_ENDPOINT)
+        .then()
+        .statusCode(200)
+        .body("contacts.size()", equalTo(0));
+  }
 }
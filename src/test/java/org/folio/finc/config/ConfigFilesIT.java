@@ -2,14 +2,21 @@ package org.folio.finc.config;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
 import io.vertx.ext.unit.junit.Timeout;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
 import java.util.UUID;
 import org.folio.finc.ApiTestBase;
 import org.folio.rest.jaxrs.model.Isil;
+import org.folio.rest.utils.ContentDigest;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -97,6 +104,253 @@ public class ConfigFilesIT extends ApiTestBase {
         .statusCode(204);
   }
 
+  @Test
+  public void checkThatWeCanGetAByteRangeOfAFile() {
+    String id =
+        given()
+            .body(TEST_CONTENT.getBytes())
+            .header("X-Okapi-Tenant", TENANT_UBL)
+            .header("content-type", ContentType.BINARY)
+            .post(FINC_CONFIG_FILES_ENDPOINT + "?isil=" + isilUbl.getIsil())
+            .then()
+            .statusCode(200)
+            .extract()
+            .response()
+            .getBody()
+            .print();
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("Range", "bytes=8-10")
+        .get(FINC_CONFIG_FILES_ENDPOINT + "/" + id)
+        .then()
+        .statusCode(206)
+        .header("Accept-Ranges", "bytes")
+        .header("Content-Range", "bytes 8-10/" + TEST_CONTENT.length())
+        .body(equalTo(TEST_CONTENT.substring(8, 11)));
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("Range", "bytes=-4")
+        .get(FINC_SELECT_FILES_ENDPOINT + "/" + id)
+        .then()
+        .statusCode(206)
+        .body(equalTo("!!!!"));
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("Range", "bytes=1000-")
+        .get(FINC_CONFIG_FILES_ENDPOINT + "/" + id)
+        .then()
+        .statusCode(416)
+        .header("Content-Range", "bytes */" + TEST_CONTENT.length())
+        .header("Vary", "Accept-Encoding");
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .delete(FINC_CONFIG_FILES_ENDPOINT + "/" + id)
+        .then()
+        .statusCode(204);
+  }
+
+  @Test
+  public void checkThatIdenticalFilesShareTheirContent() {
+    String firstId = postFile(isilUbl);
+    String secondId = postFile(isilDiku);
+    assertNotEquals(firstId, secondId);
+
+    // one stored content, referenced by both files
+    RowSet<Row> contents = selectContents(ContentDigest.of(TEST_CONTENT.getBytes()));
+    assertEquals(1, contents.size());
+    assertEquals(2, contents.iterator().next().getInteger("refcount").intValue());
+
+    // DELETE first, the shared content is still referenced by the second file
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .delete(FINC_CONFIG_FILES_ENDPOINT + "/" + firstId)
+        .then()
+        .statusCode(204);
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .get(FINC_CONFIG_FILES_ENDPOINT + "/" + firstId)
+        .then()
+        .statusCode(404);
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .get(FINC_SELECT_FILES_ENDPOINT + "/" + secondId)
+        .then()
+        .statusCode(200)
+        .body(equalTo(TEST_CONTENT));
+    assertEquals(
+        1,
+        selectContents(ContentDigest.of(TEST_CONTENT.getBytes()))
+            .iterator()
+            .next()
+            .getInteger("refcount")
+            .intValue());
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .delete(FINC_CONFIG_FILES_ENDPOINT + "/" + secondId)
+        .then()
+        .statusCode(204);
+
+    // the unreferenced content is removed
+    assertEquals(0, selectContents(ContentDigest.of(TEST_CONTENT.getBytes())).size());
+  }
+
+  private RowSet<Row> selectContents(String digest) {
+    return executeSql(
+        "SELECT refcount FROM %s.file_contents WHERE digest = $1", Tuple.of(digest));
+  }
+
+  @Test
+  public void checkThatCompressedFilesAreServed() {
+    String content = (TEST_CONTENT + "\n").repeat(1000);
+    String id =
+        given()
+            .body(content.getBytes())
+            .header("X-Okapi-Tenant", TENANT_UBL)
+            .header("content-type", ContentType.BINARY)
+            .post(FINC_CONFIG_FILES_ENDPOINT + "?isil=" + isilUbl.getIsil())
+            .then()
+            .statusCode(200)
+            .extract()
+            .response()
+            .getBody()
+            .print();
+
+    // passed through gzipped
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("Accept-Encoding", "gzip")
+        .get(FINC_CONFIG_FILES_ENDPOINT + "/" + id)
+        .then()
+        .statusCode(200)
+        .header("Content-Encoding", "gzip")
+        .header("Vary", "Accept-Encoding")
+        .body(equalTo(content));
+
+    // decompressed for a byte range
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("Range", "bytes=29-57")
+        .get(FINC_SELECT_FILES_ENDPOINT + "/" + id)
+        .then()
+        .statusCode(206)
+        .header("Content-Range", "bytes 29-57/" + content.length())
+        .header("Vary", "Accept-Encoding")
+        .body(equalTo(TEST_CONTENT + "\n"));
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .delete(FINC_CONFIG_FILES_ENDPOINT + "/" + id)
+        .then()
+        .statusCode(204);
+  }
+
+  @Test
+  public void checkThatWeCanGetTheInfoOfAFile() {
+    String id = postFile(isilUbl);
+    String sha256 =
+        given()
+            .header("X-Okapi-Tenant", TENANT_DIKU)
+            .get(FINC_CONFIG_FILES_ENDPOINT + "/" + id + "/info")
+            .then()
+            .statusCode(200)
+            .body("id", equalTo(id))
+            .body("isil", equalTo(isilUbl.getIsil()))
+            .body("size", equalTo(TEST_CONTENT.length()))
+            .body("contentType", equalTo("text/plain"))
+            .body("createdDate", notNullValue())
+            .extract()
+            .path("sha256");
+    assertEquals(ContentDigest.of(TEST_CONTENT.getBytes()), sha256);
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .get(FINC_SELECT_FILES_ENDPOINT + "/" + id + "/info")
+        .then()
+        .statusCode(200)
+        .body("sha256", equalTo(sha256));
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .get(FINC_SELECT_FILES_ENDPOINT + "/" + id + "/info")
+        .then()
+        .statusCode(404);
+
+    // unchanged content is not sent again
+    String etag =
+        given()
+            .header("X-Okapi-Tenant", TENANT_UBL)
+            .get(FINC_SELECT_FILES_ENDPOINT + "/" + id)
+            .then()
+            .statusCode(200)
+            .header("ETag", "\"" + sha256 + "\"")
+            .extract()
+            .header("ETag");
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("If-None-Match", etag)
+        .get(FINC_SELECT_FILES_ENDPOINT + "/" + id)
+        .then()
+        .statusCode(304)
+        .header("Vary", "Accept-Encoding");
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("If-None-Match", "\"foo\"")
+        .get(FINC_SELECT_FILES_ENDPOINT + "/" + id)
+        .then()
+        .statusCode(200)
+        .body(equalTo(TEST_CONTENT));
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .delete(FINC_CONFIG_FILES_ENDPOINT + "/" + id)
+        .then()
+        .statusCode(204);
+  }
+
+  @Test
+  public void checkThatWeCanGetTheUploadStatus() {
+    String id = postFile(isilUbl);
+
+    // the completed upload is not held anymore
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .get(FINC_CONFIG_FILES_ENDPOINT + "/upload-status")
+        .then()
+        .statusCode(200)
+        .body("openUploads", equalTo(0))
+        .body("bytesHeld", equalTo(0))
+        .body("maxSize", equalTo(256 * 1024 * 1024));
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .delete(FINC_CONFIG_FILES_ENDPOINT + "/" + id)
+        .then()
+        .statusCode(204);
+  }
+
+  private String postFile(Isil isil) {
+    return given()
+        .body(TEST_CONTENT.getBytes())
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("content-type", ContentType.BINARY)
+        .post(FINC_CONFIG_FILES_ENDPOINT + "?isil=" + isil.getIsil())
+        .then()
+        .statusCode(200)
+        .extract()
+        .response()
+        .getBody()
+        .print();
+  }
+
   @Test
   public void checkThatWeCannotPostWithMissingIsil() {
     // POST File
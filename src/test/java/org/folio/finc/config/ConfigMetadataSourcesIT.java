@@ -2,12 +2,21 @@ package org.folio.finc.config;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
 
 import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
 import io.vertx.core.json.Json;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 import org.folio.finc.mocks.MockOrganization;
+import org.folio.rest.jaxrs.model.FincConfigMetadataCollection;
+import org.folio.rest.jaxrs.model.FincConfigMetadataCollection.MetadataAvailable;
+import org.folio.rest.jaxrs.model.FincConfigMetadataCollection.UsageRestricted;
 import org.folio.rest.jaxrs.model.FincConfigMetadataSource;
+import org.folio.rest.jaxrs.model.MdSource;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -105,6 +114,131 @@ public class ConfigMetadataSourcesIT extends AbstractMetadataSourcesIT {
         .body("totalRecords", equalTo(0));
   }
 
+  @Test
+  public void checkSelectedStateStatus() {
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("content-type", ContentType.JSON)
+        .header("accept", ContentType.JSON)
+        .get(FINC_CONFIG_METADATA_SOURCES_ENDPOINT + "/selected-state-status")
+        .then()
+        .contentType(ContentType.JSON)
+        .statusCode(200)
+        .body("async", equalTo(false))
+        .body("queued", equalTo(0))
+        .body("lagSeconds", equalTo(0));
+  }
+
+  @Test
+  public void checkLabelPropagationOfUnrenamedSourceIsNotFound() {
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("accept", "application/json, text/plain")
+        .get(FINC_CONFIG_METADATA_SOURCES_ENDPOINT + "/" + UUID.randomUUID() + "/label-propagation")
+        .then()
+        .statusCode(404);
+  }
+
+  @Test
+  public void checkThatRenamesArePropagatedToCollections() throws InterruptedException {
+    String mockedOkapiUrl = "http://localhost:" + wireMockRule.port();
+    given()
+        .body(Json.encode(metadataSource2))
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("x-okapi-url", mockedOkapiUrl)
+        .header("content-type", ContentType.JSON)
+        .header("accept", ContentType.JSON)
+        .post(FINC_CONFIG_METADATA_SOURCES_ENDPOINT)
+        .then()
+        .statusCode(201);
+    List<String> collectionIds = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      FincConfigMetadataCollection collection =
+          new FincConfigMetadataCollection()
+              .withId(UUID.randomUUID().toString())
+              .withLabel("Collection " + i)
+              .withUsageRestricted(UsageRestricted.NO)
+              .withMetadataAvailable(MetadataAvailable.YES)
+              .withMdSource(
+                  new MdSource()
+                      .withId(metadataSource2.getId())
+                      .withName(metadataSource2.getLabel()));
+      given()
+          .body(Json.encode(collection))
+          .header("X-Okapi-Tenant", TENANT_DIKU)
+          .header("content-type", ContentType.JSON)
+          .header("accept", ContentType.JSON)
+          .post(FINC_CONFIG_METADATA_COLLECTIONS_ENDPOINT)
+          .then()
+          .statusCode(201);
+      collectionIds.add(collection.getId());
+    }
+
+    // PUT renamed source
+    String label = "Renamed Metadata Source";
+    given()
+        .body(Json.encode(metadataSource2.withLabel(label)))
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("x-okapi-url", mockedOkapiUrl)
+        .header("content-type", ContentType.JSON)
+        .header("accept", ContentType.TEXT)
+        .put(FINC_CONFIG_METADATA_SOURCES_ENDPOINT + "/" + metadataSource2.getId())
+        .then()
+        .statusCode(204);
+
+    // propagated in the background by the LabelPropagationVerticle
+    awaitLabelPropagation(metadataSource2.getId())
+        .body("label", equalTo(label))
+        .body("total", equalTo(3))
+        .body("processed", equalTo(3))
+        .body("completedDate", notNullValue());
+
+    for (String collectionId : collectionIds) {
+      given()
+          .header("X-Okapi-Tenant", TENANT_DIKU)
+          .header("accept", ContentType.JSON)
+          .get(FINC_CONFIG_METADATA_COLLECTIONS_ENDPOINT + "/" + collectionId)
+          .then()
+          .statusCode(200)
+          .body("mdSource.id", equalTo(metadataSource2.getId()))
+          .body("mdSource.name", equalTo(label));
+      given()
+          .header("X-Okapi-Tenant", TENANT_DIKU)
+          .header("accept", ContentType.TEXT)
+          .delete(FINC_CONFIG_METADATA_COLLECTIONS_ENDPOINT + "/" + collectionId)
+          .then()
+          .statusCode(204);
+    }
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("x-okapi-url", mockedOkapiUrl)
+        .header("accept", ContentType.TEXT)
+        .delete(FINC_CONFIG_METADATA_SOURCES_ENDPOINT + "/" + metadataSource2.getId())
+        .then()
+        .statusCode(204);
+  }
+
+  private ValidatableResponse awaitLabelPropagation(String metadataSourceId)
+      throws InterruptedException {
+    while (true) {
+      ValidatableResponse response =
+          given()
+              .header("X-Okapi-Tenant", TENANT_DIKU)
+              .header("accept", "application/json, text/plain")
+              .get(
+                  FINC_CONFIG_METADATA_SOURCES_ENDPOINT
+                      + "/"
+                      + metadataSourceId
+                      + "/label-propagation")
+              .then()
+              .statusCode(200);
+      if ("completed".equals(response.extract().path("state"))) {
+        return response;
+      }
+      Thread.sleep(200);
+    }
+  }
+
   @Test
   public void checkThatWeCanSearchByCQL() {
     String mockedOkapiUrl = "http://localhost:" + wireMockRule.port();
@@ -0,0 +1,148 @@
+package org.folio.finc.config;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.sqlclient.Tuple;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.finc.AbstractBenchmark;
+import org.folio.finc.dao.FileDAO;
+import org.folio.finc.dao.FileDAOImpl;
+import org.folio.finc.model.File;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Compares upload and download throughput of files stored as bytea against the former storage as
+ * base64 string inside jsonb. Not part of the regular build, run it with {@code mvn test
+ * -Dtest=FileStorageBenchmark}.
+ */
+public class FileStorageBenchmark extends AbstractBenchmark {
+
+  private static final Logger logger = LogManager.getLogger(FileStorageBenchmark.class);
+  private static final int FILES = 20;
+  private static final int FILE_SIZE = 4 * 1024 * 1024;
+  private static final String ISIL = "DE-15";
+
+  private static List<byte[]> contents;
+  @Rule public Timeout timeout = Timeout.seconds(600);
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    // Former layout of the files table
+    await(
+        postgresClient.execute(
+            "CREATE TABLE " + SCHEMA + ".legacy_files (id UUID PRIMARY KEY, jsonb JSONB)"));
+
+    Random random = new Random(42);
+    contents = new ArrayList<>();
+    for (int i = 0; i < FILES; i++) {
+      byte[] content = new byte[FILE_SIZE];
+      random.nextBytes(content);
+      contents.add(content);
+    }
+  }
+
+  @Test
+  public void benchmarkUploadAndDownload(TestContext context) throws Exception {
+    List<String> legacyIds = new ArrayList<>();
+    long legacyUpload = time(() -> legacyIds.addAll(uploadLegacy()));
+    long legacyDownload = time(() -> downloadLegacy(legacyIds, context));
+
+    FileDAO fileDAO = new FileDAOImpl();
+    List<String> ids = new ArrayList<>();
+    long upload = time(() -> ids.addAll(upload(fileDAO)));
+    long download = time(() -> download(fileDAO, ids, context));
+
+    logger.info(
+        "Upload of {} files of {} bytes: base64 in jsonb {} MB/s, bytea {} MB/s",
+        FILES,
+        FILE_SIZE,
+        throughput(legacyUpload),
+        throughput(upload));
+    logger.info(
+        "Download of {} files of {} bytes: base64 in jsonb {} MB/s, bytea {} MB/s",
+        FILES,
+        FILE_SIZE,
+        throughput(legacyDownload),
+        throughput(download));
+    context.assertTrue(upload + download < legacyUpload + legacyDownload);
+  }
+
+  private List<String> uploadLegacy() throws Exception {
+    List<String> ids = new ArrayList<>();
+    for (byte[] content : contents) {
+      String id = UUID.randomUUID().toString();
+      JsonObject jsonb =
+          new JsonObject()
+              .put("id", id)
+              .put("isil", ISIL)
+              .put("data", Base64.getEncoder().encodeToString(content));
+      await(
+          postgresClient.execute(
+              "INSERT INTO " + SCHEMA + ".legacy_files (id, jsonb) VALUES ($1, $2)",
+              Tuple.of(UUID.fromString(id), jsonb)));
+      ids.add(id);
+    }
+    return ids;
+  }
+
+  private void downloadLegacy(List<String> ids, TestContext context) throws Exception {
+    for (int i = 0; i < ids.size(); i++) {
+      JsonObject jsonb =
+          await(
+                  postgresClient.execute(
+                      "SELECT jsonb FROM " + SCHEMA + ".legacy_files WHERE id = $1",
+                      Tuple.of(UUID.fromString(ids.get(i)))))
+              .iterator()
+              .next()
+              .getJsonObject("jsonb");
+      byte[] content = Base64.getDecoder().decode(jsonb.getString("data"));
+      context.assertTrue(Arrays.equals(contents.get(i), content));
+    }
+  }
+
+  private List<String> upload(FileDAO fileDAO) throws Exception {
+    List<String> ids = new ArrayList<>();
+    for (byte[] content : contents) {
+      String id = UUID.randomUUID().toString();
+      await(
+          fileDAO.upsert(
+              new File().withId(id).withIsil(ISIL).withContent(content), id, vertxContext));
+      ids.add(id);
+    }
+    return ids;
+  }
+
+  private void download(FileDAO fileDAO, List<String> ids, TestContext context) throws Exception {
+    for (int i = 0; i < ids.size(); i++) {
+      File file = await(fileDAO.getById(ids.get(i), vertxContext));
+      context.assertTrue(Arrays.equals(contents.get(i), file.getContent()));
+    }
+  }
+
+  private static long time(ThrowingRunnable runnable) throws Exception {
+    long start = System.nanoTime();
+    runnable.run();
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
+  private static String throughput(long millis) {
+    double megabytes = (double) FILES * FILE_SIZE / (1024 * 1024);
+    return String.format("%.1f", megabytes * 1000 / Math.max(millis, 1));
+  }
+
+  private interface ThrowingRunnable {
+
+    void run() throws Exception;
+  }
+}
@@ -0,0 +1,357 @@
+package org.folio.finc.config;
+
+import static org.junit.Assert.assertEquals;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.folio.finc.ApiTestBase;
+import org.folio.finc.ApiTestSuite;
+import org.folio.rest.jaxrs.model.Isil;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.utils.Constants;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Checks the triggers and generated columns of metadata_collections, see
+ * metadata_collections_trigger.sql and metadata_collections_columns.sql
+ */
+@RunWith(VertxUnitRunner.class)
+public class SelectedStateTriggersIT extends ApiTestBase {
+
+  private static final String UBL = "DE-15";
+  private static final String DIKU = "DIKU-01";
+
+  @Rule public Timeout timeout = Timeout.seconds(10);
+  private final String mdSourceId = UUID.randomUUID().toString();
+  private final String otherMdSourceId = UUID.randomUUID().toString();
+  private final String[] collectionIds = {
+    UUID.randomUUID().toString(), UUID.randomUUID().toString(), UUID.randomUUID().toString()
+  };
+  private Isil isilUbl;
+  private Isil isilDiku;
+
+  @Before
+  public void init() {
+    isilUbl = loadIsilUbl();
+    isilDiku = loadIsilDiku();
+    insertSource(mdSourceId);
+    insertSource(otherMdSourceId);
+  }
+
+  @After
+  public void tearDown() {
+    executeSql(
+        "DELETE FROM %s.metadata_collections WHERE id = ANY($1::uuid[])",
+        Tuple.of(collectionIds));
+    executeSql(
+        "DELETE FROM %s.metadata_sources WHERE jsonb->>'id' = ANY($1)",
+        Tuple.of(new String[] {mdSourceId, otherMdSourceId}));
+    deleteIsil(isilUbl.getId());
+    deleteIsil(isilDiku.getId());
+  }
+
+  @Test
+  public void checkThatSelectedStateIsAggregatedPerStatement() {
+    insertCollections(
+        collection(collectionIds[0], mdSourceId, UBL, DIKU),
+        collection(collectionIds[1], mdSourceId, UBL),
+        collection(collectionIds[2], mdSourceId));
+    assertEquals(Map.of(UBL, "some", DIKU, "some"), selectedState(mdSourceId));
+
+    // one statement updating all collections
+    executeSql(
+        "UPDATE %s.metadata_collections SET jsonb = jsonb_set(jsonb, '{selectedBy}', $2) "
+            + "WHERE id = ANY($1::uuid[])",
+        Tuple.of(collectionIds, new JsonArray().add(UBL)));
+    assertEquals(Map.of(UBL, "all", DIKU, "none"), selectedState(mdSourceId));
+
+    // moving a collection refreshes both metadata sources
+    executeSql(
+        "UPDATE %s.metadata_collections "
+            + "SET jsonb = jsonb_set(jsonb, '{selectedBy}', '[]'::jsonb) WHERE id = $1::uuid",
+        Tuple.of(collectionIds[2]));
+    assertEquals(Map.of(UBL, "some", DIKU, "none"), selectedState(mdSourceId));
+    executeSql(
+        "UPDATE %s.metadata_collections "
+            + "SET jsonb = jsonb_set(jsonb, '{mdSource,id}', to_jsonb($2::text)) "
+            + "WHERE id = $1::uuid",
+        Tuple.of(collectionIds[2], otherMdSourceId));
+    assertEquals(Map.of(UBL, "all", DIKU, "none"), selectedState(mdSourceId));
+    assertEquals(Map.of(UBL, "none", DIKU, "none"), selectedState(otherMdSourceId));
+
+    executeSql(
+        "DELETE FROM %s.metadata_collections WHERE id = $1::uuid", Tuple.of(collectionIds[0]));
+    assertEquals(Map.of(UBL, "all", DIKU, "none"), selectedState(mdSourceId));
+  }
+
+  @Test
+  public void checkThatCountersFollowInsertUpdateAndDelete() {
+    insertCollections(
+        collection(collectionIds[0], mdSourceId, UBL, DIKU),
+        collection(collectionIds[1], mdSourceId, UBL));
+    assertEquals(2, total(mdSourceId));
+    assertEquals(Map.of(UBL, 2L, DIKU, 1L), selected(mdSourceId));
+
+    insertCollections(collection(collectionIds[2], otherMdSourceId, DIKU));
+    assertEquals(2, total(mdSourceId));
+    assertEquals(1, total(otherMdSourceId));
+    assertEquals(Map.of(DIKU, 1L), selected(otherMdSourceId));
+
+    // unselect
+    executeSql(
+        "UPDATE %s.metadata_collections "
+            + "SET jsonb = jsonb_set(jsonb, '{selectedBy}', '[]'::jsonb) WHERE id = $1::uuid",
+        Tuple.of(collectionIds[0]));
+    assertEquals(2, total(mdSourceId));
+    assertEquals(Map.of(UBL, 1L, DIKU, 0L), selected(mdSourceId));
+
+    // changes of other fields leave the counters alone
+    executeSql(
+        "UPDATE %s.metadata_collections SET jsonb = jsonb_set(jsonb, '{label}', '\"Renamed\"') "
+            + "WHERE id = ANY($1::uuid[])",
+        Tuple.of(collectionIds));
+    assertEquals(2, total(mdSourceId));
+    assertEquals(Map.of(UBL, 1L, DIKU, 0L), selected(mdSourceId));
+
+    // move
+    executeSql(
+        "UPDATE %s.metadata_collections "
+            + "SET jsonb = jsonb_set(jsonb, '{mdSource,id}', to_jsonb($2::text)) "
+            + "WHERE id = $1::uuid",
+        Tuple.of(collectionIds[1], otherMdSourceId));
+    assertEquals(1, total(mdSourceId));
+    assertEquals(2, total(otherMdSourceId));
+    assertEquals(Map.of(UBL, 0L, DIKU, 0L), selected(mdSourceId));
+    assertEquals(Map.of(UBL, 1L, DIKU, 1L), selected(otherMdSourceId));
+
+    executeSql(
+        "DELETE FROM %s.metadata_collections WHERE id = ANY($1::uuid[])",
+        Tuple.of(collectionIds));
+    assertEquals(0, total(mdSourceId));
+    assertEquals(0, total(otherMdSourceId));
+    assertEquals(Map.of(UBL, 0L, DIKU, 0L), selected(otherMdSourceId));
+  }
+
+  @Test
+  public void checkThatConcurrentUpdatesOfSeveralSourcesKeepCounters() throws Exception {
+    insertCollections(
+        collection(collectionIds[0], mdSourceId, UBL),
+        collection(collectionIds[1], mdSourceId),
+        collection(collectionIds[2], otherMdSourceId, DIKU));
+
+    // each statement changes the counters of both metadata sources
+    List<JsonArray> selections =
+        Arrays.asList(
+            new JsonArray().add(UBL),
+            new JsonArray().add(DIKU),
+            new JsonArray().add(UBL).add(DIKU),
+            new JsonArray());
+    PostgresClient postgresClient =
+        PostgresClient.getInstance(ApiTestSuite.getVertx(), Constants.MODULE_TENANT);
+    List<Future> updates = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      updates.add(
+          postgresClient.execute(
+              String.format(
+                  "UPDATE %s.metadata_collections SET jsonb = jsonb_set(jsonb, '{selectedBy}', $2) "
+                      + "WHERE id = ANY($1::uuid[])",
+                  PostgresClient.convertToPsqlStandard(Constants.MODULE_TENANT)),
+              Tuple.of(collectionIds, selections.get(i % selections.size()))));
+    }
+    CompositeFuture.all(updates).toCompletionStage().toCompletableFuture().get(8, TimeUnit.SECONDS);
+
+    assertEquals(2, total(mdSourceId));
+    assertEquals(1, total(otherMdSourceId));
+    assertEquals(recount(mdSourceId), withoutZeros(selected(mdSourceId)));
+    assertEquals(recount(otherMdSourceId), withoutZeros(selected(otherMdSourceId)));
+  }
+
+  @Test
+  public void checkThatAsyncModeQueuesDeltas() throws Exception {
+    insertCollections(
+        collection(collectionIds[0], mdSourceId, UBL), collection(collectionIds[1], mdSourceId));
+    String schema = PostgresClient.convertToPsqlStandard(Constants.MODULE_TENANT);
+    Map<String, Object> observed = new HashMap<>();
+
+    // one transaction, so that the background drain does not see the queued deltas
+    PostgresClient.getInstance(ApiTestSuite.getVertx(), Constants.MODULE_TENANT)
+        .withTrans(
+            conn ->
+                conn.execute(
+                        String.format(
+                            "UPDATE %s.selected_state_settings SET async = TRUE", schema))
+                    .compose(
+                        v ->
+                            conn.execute(
+                                String.format(
+                                    "UPDATE %s.metadata_collections "
+                                        + "SET jsonb = jsonb_set(jsonb, '{selectedBy}', $2) "
+                                        + "WHERE id = $1::uuid",
+                                    schema),
+                                Tuple.of(collectionIds[1], new JsonArray().add(UBL))))
+                    .compose(
+                        v ->
+                            conn.execute(
+                                String.format(
+                                    "SELECT count(*) AS queued FROM %s.selected_state_queue "
+                                        + "WHERE md_source_id = $1",
+                                    schema),
+                                Tuple.of(mdSourceId)))
+                    .compose(
+                        rows -> {
+                          observed.put("queued", rows.iterator().next().getLong("queued"));
+                          return conn.execute(
+                              String.format(
+                                  "SELECT selected FROM %s.metadata_source_selection_counts "
+                                      + "WHERE md_source_id = $1 AND isil = $2",
+                                  schema),
+                              Tuple.of(mdSourceId, UBL));
+                        })
+                    .compose(
+                        rows -> {
+                          observed.put("selected", rows.iterator().next().getLong("selected"));
+                          return conn.execute(
+                              String.format(
+                                  "SELECT %s.drain_selected_state_queue(100) AS drained", schema));
+                        })
+                    .compose(
+                        rows -> {
+                          observed.put("drained", rows.iterator().next().getInteger("drained"));
+                          return conn.execute(
+                              String.format(
+                                  "UPDATE %s.selected_state_settings SET async = FALSE", schema));
+                        }))
+        .toCompletionStage()
+        .toCompletableFuture()
+        .get(5, TimeUnit.SECONDS);
+
+    assertEquals(1L, observed.get("queued"));
+    assertEquals(1L, observed.get("selected"));
+    assertEquals(1, observed.get("drained"));
+    assertEquals(Map.of(UBL, 2L), selected(mdSourceId));
+    assertEquals(Map.of(UBL, "all", DIKU, "none"), selectedState(mdSourceId));
+  }
+
+  @Test
+  public void checkThatGeneratedColumnsFollowTheCollection() {
+    insertCollections(
+        collection(collectionIds[0], mdSourceId),
+        collection(collectionIds[1], mdSourceId).put("usageRestricted", "yes"),
+        collection(collectionIds[2], mdSourceId).put("mdSource", new JsonObject()));
+    assertEquals(Arrays.asList(mdSourceId, "no"), generatedColumns(collectionIds[0]));
+    assertEquals(Arrays.asList(mdSourceId, "yes"), generatedColumns(collectionIds[1]));
+    assertEquals(Arrays.asList(null, "no"), generatedColumns(collectionIds[2]));
+
+    executeSql(
+        "UPDATE %s.metadata_collections SET jsonb = jsonb_set(jsonb_set(jsonb, "
+            + "'{mdSource,id}', to_jsonb($2::text)), '{usageRestricted}', '\"yes\"') "
+            + "WHERE id = $1::uuid",
+        Tuple.of(collectionIds[0], otherMdSourceId));
+    assertEquals(Arrays.asList(otherMdSourceId, "yes"), generatedColumns(collectionIds[0]));
+  }
+
+  static JsonObject collection(String id, String mdSourceId, String... selectedBy) {
+    return new JsonObject()
+        .put("id", id)
+        .put("label", "Collection " + id)
+        .put("usageRestricted", "no")
+        .put("mdSource", new JsonObject().put("id", mdSourceId))
+        .put("selectedBy", new JsonArray(Arrays.asList((Object[]) selectedBy)));
+  }
+
+  /** Inserts the collections with a single statement */
+  static void insertCollections(JsonObject... collections) {
+    executeSql(
+        "INSERT INTO %s.metadata_collections (id, jsonb) "
+            + "SELECT (c->>'id')::uuid, c FROM jsonb_array_elements($1) AS c",
+        Tuple.of(new JsonArray(Arrays.asList((Object[]) collections))));
+  }
+
+  private static void insertSource(String id) {
+    executeSql(
+        "INSERT INTO %s.metadata_sources (id, jsonb) VALUES ($1::uuid, $2)",
+        Tuple.of(id, new JsonObject().put("id", id).put("label", "Source " + id)));
+  }
+
+  /** @return md_source_id and usage_restriction of the collection */
+  private static List<String> generatedColumns(String collectionId) {
+    Row row =
+        executeSql(
+                "SELECT md_source_id, usage_restriction FROM %s.metadata_collections "
+                    + "WHERE id = $1::uuid",
+                Tuple.of(collectionId))
+            .iterator()
+            .next();
+    return Arrays.asList(row.getString("md_source_id"), row.getString("usage_restriction"));
+  }
+
+  private static long total(String mdSourceId) {
+    return executeSql(
+            "SELECT total FROM %s.metadata_source_collection_counts WHERE md_source_id = $1",
+            Tuple.of(mdSourceId))
+        .iterator()
+        .next()
+        .getLong("total");
+  }
+
+  /** @return The number of selected collections per isil having a counter */
+  private static Map<String, Long> selected(String mdSourceId) {
+    Map<String, Long> selected = new HashMap<>();
+    executeSql(
+            "SELECT isil, selected FROM %s.metadata_source_selection_counts "
+                + "WHERE md_source_id = $1",
+            Tuple.of(mdSourceId))
+        .forEach(row -> selected.put(row.getString("isil"), row.getLong("selected")));
+    return selected;
+  }
+
+  /** @return The number of selected collections per isil counted from the collections */
+  private static Map<String, Long> recount(String mdSourceId) {
+    Map<String, Long> selected = new HashMap<>();
+    executeSql(
+            "SELECT i.isil, COUNT(*) AS selected FROM %s.metadata_collections AS c, "
+                + "jsonb_array_elements_text(c.jsonb->'selectedBy') AS i(isil) "
+                + "WHERE c.md_source_id = $1 GROUP BY i.isil",
+            Tuple.of(mdSourceId))
+        .forEach(row -> selected.put(row.getString("isil"), row.getLong("selected")));
+    return selected;
+  }
+
+  private static Map<String, Long> withoutZeros(Map<String, Long> selected) {
+    selected.values().removeIf(count -> count == 0);
+    return selected;
+  }
+
+  /** @return The selected state per isil as stored in the metadata source */
+  private static Map<String, String> selectedState(String mdSourceId) {
+    Row row =
+        executeSql(
+                "SELECT jsonb->'selectedBy' AS selected_by FROM %s.metadata_sources "
+                    + "WHERE jsonb->>'id' = $1",
+                Tuple.of(mdSourceId))
+            .iterator()
+            .next();
+    Map<String, String> selectedState = new HashMap<>();
+    row.getJsonArray("selected_by").stream()
+        .map(JsonObject.class::cast)
+        .forEach(state -> selectedState.put(state.getString("isil"), state.getString("selected")));
+    return selectedState;
+  }
+}
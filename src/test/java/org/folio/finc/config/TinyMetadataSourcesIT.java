@@ -2,6 +2,9 @@ package org.folio.finc.config;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 
 import io.restassured.http.ContentType;
 import io.vertx.core.json.Json;
@@ -52,4 +55,64 @@ public class TinyMetadataSourcesIT extends AbstractMetadataSourcesIT {
         .then()
         .statusCode(204);
   }
+
+  @Test
+  public void checkThatUnchangedTinyMetadataSourcesAreNotModified() {
+    String mockedOkapiUrl = "http://localhost:" + wireMockRule.port();
+    String etag =
+        given()
+            .header("X-Okapi-Tenant", TENANT_DIKU)
+            .header("accept", ContentType.JSON)
+            .get(FINC_CONFIG_TINY_METADATA_SOURCES_ENDPOINT)
+            .then()
+            .statusCode(200)
+            .header("ETag", notNullValue())
+            .extract()
+            .header("ETag");
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("accept", ContentType.JSON)
+        .header("If-None-Match", etag)
+        .get(FINC_CONFIG_TINY_METADATA_SOURCES_ENDPOINT)
+        .then()
+        .statusCode(304);
+
+    MockOrganization.mockOrganizationFound(organizationUUID1235);
+    given()
+        .body(Json.encode(metadataSource2))
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("x-okapi-url", mockedOkapiUrl)
+        .header("content-type", ContentType.JSON)
+        .header("accept", ContentType.JSON)
+        .post(FINC_CONFIG_METADATA_SOURCES_ENDPOINT)
+        .then()
+        .statusCode(201);
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("accept", ContentType.JSON)
+        .header("If-None-Match", etag)
+        .get(FINC_CONFIG_TINY_METADATA_SOURCES_ENDPOINT)
+        .then()
+        .statusCode(200)
+        .header("ETag", not(equalTo(etag)))
+        .body("tinyMetadataSources.id", hasItem(metadataSource2.getId()));
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("x-okapi-url", mockedOkapiUrl)
+        .header("accept", ContentType.TEXT)
+        .delete(FINC_CONFIG_METADATA_SOURCES_ENDPOINT + "/" + metadataSource2.getId())
+        .then()
+        .statusCode(204);
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("accept", ContentType.JSON)
+        .header("If-None-Match", etag)
+        .get(FINC_CONFIG_TINY_METADATA_SOURCES_ENDPOINT)
+        .then()
+        .statusCode(304);
+  }
 }
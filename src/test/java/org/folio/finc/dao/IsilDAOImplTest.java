@@ -0,0 +1,115 @@
+package org.folio.finc.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IsilDAOImplTest {
+
+  private final Map<String, String> isils = new HashMap<>();
+  private final AtomicInteger fetches = new AtomicInteger();
+  private Vertx vertx;
+  private Context context;
+  private IsilDAOImpl cut;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    context = vertx.getOrCreateContext();
+    isils.put("ubl", "DE-15");
+    cut =
+        new IsilDAOImpl() {
+          @Override
+          public Future<String> fetchIsilForTenant(String tenantId, Context context) {
+            fetches.incrementAndGet();
+            return Future.succeededFuture(isils.get(tenantId));
+          }
+        };
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    System.clearProperty(IsilDAOImpl.CACHE_TTL);
+    vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testIsilIsCached() throws Exception {
+    assertEquals("DE-15", getIsil("ubl"));
+    isils.put("ubl", "DE-15-changed");
+    assertEquals("DE-15", getIsil("ubl"));
+    assertEquals(1, fetches.get());
+  }
+
+  @Test
+  public void testMissingIsilIsCached() throws Exception {
+    assertNull(getIsil("diku"));
+    assertNull(getIsil("diku"));
+    assertEquals(1, fetches.get());
+  }
+
+  @Test
+  public void testInvalidateCache() throws Exception {
+    assertNull(getIsil("diku"));
+    isils.put("diku", "DIKU-01");
+    IsilDAOImpl.invalidateCache(vertx);
+    assertEquals("DIKU-01", getIsil("diku"));
+    assertEquals(2, fetches.get());
+  }
+
+  @Test
+  public void testCachedIsilExpires() throws Exception {
+    System.setProperty(IsilDAOImpl.CACHE_TTL, "1");
+    assertEquals("DE-15", getIsil("ubl"));
+    isils.put("ubl", "DE-15-changed");
+    Thread.sleep(10);
+    assertEquals("DE-15-changed", getIsil("ubl"));
+    assertEquals(2, fetches.get());
+  }
+
+  @Test
+  public void testCacheIsPerVertx() throws Exception {
+    assertEquals("DE-15", getIsil("ubl"));
+    Vertx other = Vertx.vertx();
+    try {
+      IsilDAOImpl.invalidateCache(other);
+      assertEquals("DE-15", getIsil("ubl"));
+      assertEquals(1, fetches.get());
+    } finally {
+      other.close();
+    }
+  }
+
+  @Test
+  public void testFailedFetchIsNotCached() throws Exception {
+    IsilDAOImpl failing =
+        new IsilDAOImpl() {
+          @Override
+          public Future<String> fetchIsilForTenant(String tenantId, Context context) {
+            fetches.incrementAndGet();
+            return Future.failedFuture("Database unavailable");
+          }
+        };
+    assertTrue(failing.getIsilForTenant("ubl", context).failed());
+    assertEquals("DE-15", getIsil("ubl"));
+    assertEquals(2, fetches.get());
+  }
+
+  private String getIsil(String tenantId) throws Exception {
+    return cut.getIsilForTenant(tenantId, context)
+        .toCompletionStage()
+        .toCompletableFuture()
+        .get(5, TimeUnit.SECONDS);
+  }
+}
@@ -0,0 +1,92 @@
+package org.folio.finc.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.folio.rest.jaxrs.model.TinyMetadataSources;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetadataSourcesTinySnapshotTest {
+
+  private final List<Promise<TinyMetadataSources>> loads = new ArrayList<>();
+  private Vertx vertx;
+  private Context context;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    context = vertx.getOrCreateContext();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testSlowLoadIsShared() throws Exception {
+    MetadataSourcesTinySnapshot cut = snapshot(10);
+    cut.get(context);
+    Thread.sleep(20);
+    cut.get(context);
+    assertEquals(1, loads.size());
+
+    loads.get(0).complete(new TinyMetadataSources());
+    cut.get(context);
+    assertEquals(1, loads.size());
+  }
+
+  @Test
+  public void testAgeCountsFromCompletedLoad() throws Exception {
+    MetadataSourcesTinySnapshot cut = snapshot(10);
+    cut.get(context);
+    Thread.sleep(20);
+    loads.get(0).complete(new TinyMetadataSources());
+    cut.get(context);
+    assertEquals(1, loads.size());
+
+    Thread.sleep(20);
+    cut.get(context);
+    assertEquals(2, loads.size());
+  }
+
+  @Test
+  public void testSnapshotInvalidatedDuringLoadIsNotKept() {
+    MetadataSourcesTinySnapshot cut = snapshot(60000);
+    cut.get(context);
+    cut.invalidate();
+    loads.get(0).complete(new TinyMetadataSources());
+    cut.get(context);
+    assertEquals(2, loads.size());
+  }
+
+  @Test
+  public void testFailedLoadIsNotKept() {
+    MetadataSourcesTinySnapshot cut = snapshot(60000);
+    Future<MetadataSourcesTinySnapshot.Snapshot> failed = cut.get(context);
+    assertSame(failed, cut.get(context));
+    loads.get(0).fail("Database unavailable");
+    assertNotSame(failed, cut.get(context));
+    assertEquals(2, loads.size());
+  }
+
+  private MetadataSourcesTinySnapshot snapshot(long maxAgeMillis) {
+    return new MetadataSourcesTinySnapshot(
+        vertxContext -> {
+          Promise<TinyMetadataSources> promise = Promise.promise();
+          loads.add(promise);
+          return promise.future();
+        },
+        maxAgeMillis);
+  }
+}
@@ -11,7 +11,6 @@ import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.Timeout;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.Base64;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
@@ -107,9 +106,7 @@ public abstract class AbstractEZBHarvestJobTest {
         .getById(fileId, vertxContext)
         .map(
             file -> {
-              String actualAsBase64 = file.getData();
-              byte[] bytes = Base64.getDecoder().decode(actualAsBase64);
-              return new String(bytes, StandardCharsets.UTF_8);
+              return new String(file.getContent(), StandardCharsets.UTF_8);
             });
   }
 
@@ -166,7 +163,7 @@ public abstract class AbstractEZBHarvestJobTest {
 
     File file =
         new File()
-            .withData(Base64.getEncoder().encodeToString(content.getBytes()))
+            .withContent(content.getBytes())
             .withIsil(tenant)
             .withId(fileId);
     return fileDAO
@@ -67,4 +67,40 @@ public class FincSelectFilesIT extends ApiTestBase {
         .then()
         .statusCode(204);
   }
+
+  @Test
+  public void checkThatByteRangesAreRestrictedToTheIsil() {
+    String id =
+        given()
+            .body(TEST_CONTENT.getBytes())
+            .header("X-Okapi-Tenant", TENANT_UBL)
+            .header("content-type", ContentType.BINARY)
+            .post(FINC_SELECT_FILES_ENDPOINT)
+            .then()
+            .statusCode(200)
+            .extract()
+            .asString();
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("Range", "bytes=0-3")
+        .get(FINC_SELECT_FILES_ENDPOINT + "/" + id)
+        .then()
+        .statusCode(206)
+        .header("Content-Range", equalTo("bytes 0-3/" + TEST_CONTENT.length()))
+        .body(equalTo("This"));
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("Range", "bytes=0-3")
+        .get(FINC_SELECT_FILES_ENDPOINT + "/" + id)
+        .then()
+        .statusCode(404);
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .delete(FINC_SELECT_FILES_ENDPOINT + "/" + id)
+        .then()
+        .statusCode(204);
+  }
 }
@@ -3,6 +3,7 @@ package org.folio.finc.select;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
@@ -10,7 +11,10 @@ import io.vertx.core.json.Json;
 import io.vertx.ext.unit.junit.Timeout;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import org.folio.finc.ApiTestBase;
+import org.folio.finc.ApiTestSuite;
+import org.folio.finc.dao.IsilDAOImpl;
 import org.folio.rest.jaxrs.model.Isil;
 import org.folio.rest.jaxrs.model.Isils;
 import org.junit.After;
@@ -127,4 +131,42 @@ public class IsilsIT extends ApiTestBase {
         .body("id", equalTo(isilUBL.getId()))
         .body("library", equalTo(newLibrary));
   }
+
+  @Test
+  public void testCachedIsilsAreInvalidatedByWrites() {
+    assertEquals(isilUBL.getIsil(), getCachedIsil(TENANT_UBL));
+
+    // PUT moves the isil to another tenant
+    given()
+        .body(Json.encode(isilUBL.withTenant("other")))
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("content-type", ContentType.JSON)
+        .header("accept", ContentType.TEXT)
+        .put(ISILS_API_ENDPOINT + "/" + isilUBL.getId())
+        .then()
+        .statusCode(204);
+    assertNull(getCachedIsil(TENANT_UBL));
+    assertEquals(isilUBL.getIsil(), getCachedIsil("other"));
+
+    // DELETE
+    deleteIsil(isilUBL.getId());
+    assertNull(getCachedIsil("other"));
+
+    // POST
+    isilUBL = loadIsilUbl();
+    assertEquals(isilUBL.getIsil(), getCachedIsil(TENANT_UBL));
+  }
+
+  /** Resolves the isil with the cache of the module under test, which runs on the suite's vertx */
+  private String getCachedIsil(String tenantId) {
+    try {
+      return new IsilDAOImpl()
+          .getIsilForTenant(tenantId, ApiTestSuite.getVertx().getOrCreateContext())
+          .toCompletionStage()
+          .toCompletableFuture()
+          .get(5, TimeUnit.SECONDS);
+    } catch (Exception e) {
+      throw new AssertionError("Cannot get isil of tenant " + tenantId, e);
+    }
+  }
 }
@@ -0,0 +1,84 @@
+package org.folio.finc.select;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.folio.finc.select.query.MetadataCollectionsQueryTranslator;
+import org.folio.finc.select.query.MetadataCollectionsQueryTranslator.Translation;
+import org.folio.finc.select.query.YesNoQuery;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(value = Parameterized.class)
+public class MetadataCollectionsYesNoQueryTest {
+
+  private static final String isil = "ISIL-01";
+
+  private static MetadataCollectionsQueryTranslator cut;
+
+  @BeforeClass
+  public static void setUp() {
+    cut = new MetadataCollectionsQueryTranslator();
+  }
+
+  private final String query;
+  private final String expectedQuery;
+  private final String expectedSelected;
+  private final String expectedPermitted;
+
+  public MetadataCollectionsYesNoQueryTest(
+      String query, String expectedQuery, String expectedSelected, String expectedPermitted) {
+    this.query = query;
+    this.expectedQuery = expectedQuery;
+    this.expectedSelected = expectedSelected;
+    this.expectedPermitted = expectedPermitted;
+  }
+
+  @Parameterized.Parameters(name = "{index}: translateQueryWithYesNoQueries({0}) = {1}, {2}, {3}")
+  public static Collection<Object[]> data() {
+    return Arrays.asList(
+        new Object[][] {
+          {"selected=yes", "", "(Y)", null},
+          {"selected=no", "", "(N)", null},
+          {"selected=(\"yes\" or \"no\")", "", "(Y OR N)", null},
+          {"permitted=(\"no\" or \"yes\")", "", null, "(N OR Y)"},
+          {
+            "mdSource.id=\"uuid-1234\" AND selected=yes sortby label",
+            "(mdSource.id=\"uuid-1234\") sortby label",
+            "(Y)",
+            null
+          },
+          {"selected=no AND permitted=yes", "", "(N)", "(Y)"},
+          {"mdSource.id=\"uuid-1234\"", "(mdSource.id=\"uuid-1234\")", null, null}
+        });
+  }
+
+  @Test
+  public void testTranslateQueryWithYesNoQueries() {
+    Translation translation = cut.translateQueryWithYesNoQueries(query, isil, true);
+    assertEquals(expectedQuery, translation.getQuery());
+    assertEquals(expectedSelected, toSql(translation.getSelected()));
+    assertEquals(expectedPermitted, toSql(translation.getPermitted()));
+  }
+
+  @Test
+  public void testPermittedIsTranslatedToCqlIfNotRequested() {
+    Translation translation = cut.translateQueryWithYesNoQueries(query, isil, false);
+    assertNull(translation.getPermitted());
+    if (expectedPermitted == null) {
+      assertEquals(expectedQuery, translation.getQuery());
+    } else {
+      assertEquals(
+          cut.translateQuery(query.replaceAll("selected=\\S+", ""), isil),
+          translation.getQuery());
+    }
+  }
+
+  private static String toSql(YesNoQuery yesNoQuery) {
+    return yesNoQuery == null ? null : yesNoQuery.toSql("Y", "N");
+  }
+}
@@ -0,0 +1,115 @@
+package org.folio.finc.select;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.sqlclient.Tuple;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.finc.AbstractBenchmark;
+import org.folio.finc.dao.SelectMetadataCollectionsDAOImpl;
+import org.folio.finc.select.query.QueryMode;
+import org.folio.rest.jaxrs.model.FincSelectMetadataCollection;
+import org.folio.rest.jaxrs.model.FincSelectMetadataCollections;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Compares the query modes for finc-select queries on the selected and permitted state on a
+ * catalog of 100k collections and 200 isils. Not part of the regular build, run it with {@code mvn
+ * test -Dtest=QueryModeBenchmark}.
+ */
+public class QueryModeBenchmark extends AbstractBenchmark {
+
+  private static final Logger logger = LogManager.getLogger(QueryModeBenchmark.class);
+  private static final int COLLECTIONS = 100000;
+  private static final int ISILS = 200;
+  private static final int RUNS = 20;
+  private static final String ISIL = "BM-007";
+  private static final String[] QUERIES = {
+    "selected=yes AND permitted=yes sortby label",
+    "selected=no sortby label",
+    "permitted=yes sortby label",
+    "label=\"Benchmark collection 4711\" AND selected=yes sortby label"
+  };
+
+  @Rule public Timeout timeout = Timeout.seconds(1800);
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    String mdSourceId = UUID.randomUUID().toString();
+    await(
+        postgresClient.withTrans(
+            conn ->
+                conn.execute("SET LOCAL finc.defer_selected_state = 'on'")
+                    .compose(
+                        v ->
+                            conn.execute(
+                                "INSERT INTO "
+                                    + SCHEMA
+                                    + ".metadata_collections (id, jsonb) "
+                                    + "SELECT sub.id, jsonb_build_object('id', sub.id::text, "
+                                    + "'label', 'Benchmark collection ' || sub.i, "
+                                    + "'mdSource', jsonb_build_object('id', $1::text), "
+                                    + "'usageRestricted', CASE WHEN sub.i % 2 = 0 "
+                                    + "THEN 'yes' ELSE 'no' END, "
+                                    + "'selectedBy', "
+                                    + isils("sub.i", 10)
+                                    + ", 'permittedFor', "
+                                    + isils("sub.i", 4)
+                                    + ") "
+                                    + "FROM (SELECT i, md5(random()::text || i)::uuid AS id "
+                                    + "FROM generate_series(1, $2) AS i) AS sub",
+                                Tuple.of(mdSourceId, COLLECTIONS)))));
+    await(postgresClient.execute("ANALYZE " + SCHEMA + ".metadata_collections"));
+    await(postgresClient.execute("ANALYZE " + SCHEMA + ".collection_selections"));
+  }
+
+  /** Array of every n-th isil, shifted by the collection number */
+  private static String isils(String i, int n) {
+    return String.format(
+        "COALESCE((SELECT jsonb_agg('BM-' || lpad(k::text, 3, '0')) "
+            + "FROM generate_series(0, %d) AS k WHERE (%s + k) %% %d = 0), '[]'::jsonb)",
+        ISILS - 1, i, n);
+  }
+
+  @Test
+  public void benchmarkQueryModes(TestContext testContext) throws Exception {
+    for (String query : QUERIES) {
+      FincSelectMetadataCollections expected = null;
+      for (QueryMode queryMode : QueryMode.values()) {
+        SelectMetadataCollectionsDAOImpl dao = new SelectMetadataCollectionsDAOImpl(queryMode);
+        FincSelectMetadataCollections result =
+            await(dao.getAll(query, 0, 30, ISIL, vertxContext));
+        long start = System.nanoTime();
+        for (int run = 0; run < RUNS; run++) {
+          await(dao.getAll(query, 0, 30, ISIL, vertxContext));
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) / RUNS;
+        logger.info(
+            "Query '{}' with query mode {}: {} ms, {} records",
+            query,
+            queryMode,
+            millis,
+            result.getTotalRecords());
+
+        if (expected == null) {
+          expected = result;
+        } else {
+          // totals are estimated from the query plan, which differs between the modes
+          testContext.assertEquals(ids(expected), ids(result));
+        }
+      }
+    }
+  }
+
+  private static List<String> ids(FincSelectMetadataCollections collections) {
+    return collections.getFincSelectMetadataCollections().stream()
+        .map(FincSelectMetadataCollection::getId)
+        .collect(Collectors.toList());
+  }
+}
@@ -10,6 +10,8 @@ import io.vertx.ext.unit.junit.VertxUnitRunner;
 import java.util.Arrays;
 import java.util.UUID;
 import org.folio.finc.ApiTestBase;
+import org.folio.rest.jaxrs.model.CollectionSelectResult.Result;
+import org.folio.rest.jaxrs.model.CollectionsSelect;
 import org.folio.rest.jaxrs.model.FincConfigMetadataCollection;
 import org.folio.rest.jaxrs.model.FincConfigMetadataCollection.UsageRestricted;
 import org.folio.rest.jaxrs.model.FincSelectMetadataCollection.Permitted;
@@ -360,6 +362,44 @@ public class SelectMetadataCollectionsIT extends ApiTestBase {
         .then()
         .statusCode(404);
 
+    // Selecting an already selected metadata collection again succeeds
+    given()
+        .body(Json.encode(select))
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("content-type", ContentType.JSON)
+        .header("accept", ContentType.TEXT)
+        .put(
+            FINC_SELECT_METADATA_COLLECTIONS_ENDPOINT
+                + "/"
+                + metadataCollectionPermitted.getId()
+                + "/select")
+        .then()
+        .statusCode(204);
+
+    // Check that we cannot select a non existing metadata collection
+    given()
+        .body(Json.encode(select))
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("content-type", ContentType.JSON)
+        .header("accept", ContentType.TEXT)
+        .put(
+            FINC_SELECT_METADATA_COLLECTIONS_ENDPOINT
+                + "/"
+                + UUID.randomUUID().toString()
+                + "/select")
+        .then()
+        .statusCode(404);
+
+    // Check that an id that is not a UUID is not found either
+    given()
+        .body(Json.encode(select))
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("content-type", ContentType.JSON)
+        .header("accept", ContentType.TEXT)
+        .put(FINC_SELECT_METADATA_COLLECTIONS_ENDPOINT + "/uuid-1234/select")
+        .then()
+        .statusCode(404);
+
     // DELETE
     given()
         .header("X-Okapi-Tenant", TENANT_UBL)
@@ -377,6 +417,87 @@ public class SelectMetadataCollectionsIT extends ApiTestBase {
         .statusCode(204);
   }
 
+  @Test
+  public void checkThatWeCanBulkSelect() {
+    given()
+        .body(Json.encode(metadataCollectionPermitted))
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("content-type", ContentType.JSON)
+        .header("accept", ContentType.JSON)
+        .post(FINC_CONFIG_METADATA_COLLECTIONS_ENDPOINT)
+        .then()
+        .statusCode(201);
+    given()
+        .body(Json.encode(metadataCollectionForbidden))
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("content-type", ContentType.JSON)
+        .header("accept", ContentType.JSON)
+        .post(FINC_CONFIG_METADATA_COLLECTIONS_ENDPOINT)
+        .then()
+        .statusCode(201);
+
+    // Unselect permitted, forbidden and non existing metadata collection
+    String unknownId = UUID.randomUUID().toString();
+    CollectionsSelect bulkUnselect =
+        new CollectionsSelect()
+            .withCollectionIds(
+                Arrays.asList(
+                    metadataCollectionPermitted.getId(),
+                    metadataCollectionForbidden.getId(),
+                    unknownId))
+            .withSelect(false);
+    given()
+        .body(Json.encode(bulkUnselect))
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("content-type", ContentType.JSON)
+        .header("accept", ContentType.JSON)
+        .put(FINC_SELECT_METADATA_COLLECTIONS_ENDPOINT + "/bulk-select")
+        .then()
+        .statusCode(200)
+        .body("totalRecords", equalTo(3))
+        .body("results[0].id", equalTo(metadataCollectionPermitted.getId()))
+        .body("results[0].result", equalTo(Result.OK.value()))
+        .body("results[1].id", equalTo(metadataCollectionForbidden.getId()))
+        .body("results[1].result", equalTo(Result.NOT_PERMITTED.value()))
+        .body("results[2].id", equalTo(unknownId))
+        .body("results[2].result", equalTo(Result.NOT_FOUND.value()));
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("accept", ContentType.JSON)
+        .get(FINC_SELECT_METADATA_COLLECTIONS_ENDPOINT + "/" + metadataCollectionPermitted.getId())
+        .then()
+        .statusCode(200)
+        .body("selected", equalTo(Selected.NO.toString()));
+
+    // Ids need to be UUIDs
+    given()
+        .body(
+            Json.encode(
+                new CollectionsSelect()
+                    .withCollectionIds(Arrays.asList("uuid-1234"))
+                    .withSelect(true)))
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("content-type", ContentType.JSON)
+        .header("accept", ContentType.JSON)
+        .put(FINC_SELECT_METADATA_COLLECTIONS_ENDPOINT + "/bulk-select")
+        .then()
+        .statusCode(422);
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .delete(
+            FINC_CONFIG_METADATA_COLLECTIONS_ENDPOINT + "/" + metadataCollectionPermitted.getId())
+        .then()
+        .statusCode(204);
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .delete(
+            FINC_CONFIG_METADATA_COLLECTIONS_ENDPOINT + "/" + metadataCollectionForbidden.getId())
+        .then()
+        .statusCode(204);
+  }
+
   @Test
   public void checkThatWeCanFilterForMetadataCollections() {
     // POST
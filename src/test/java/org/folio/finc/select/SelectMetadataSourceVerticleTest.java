@@ -3,6 +3,7 @@ package org.folio.finc.select;
 import io.restassured.RestAssured;
 import io.restassured.parsing.Parser;
 import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
@@ -10,7 +11,9 @@ import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.Timeout;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import org.folio.finc.TenantUtil;
+import org.folio.finc.select.verticles.AbstractSelectMetadataSourceVerticle;
 import org.folio.finc.select.verticles.SelectMetadataSourceVerticle;
+import org.folio.finc.select.verticles.UnselectMetadataSourceVerticle;
 import org.folio.postgres.testing.PostgresTesterContainer;
 import org.folio.rest.RestVerticle;
 import org.folio.rest.jaxrs.model.FincConfigMetadataCollection;
@@ -22,10 +25,14 @@ import org.folio.rest.utils.Constants;
 import org.junit.*;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @RunWith(VertxUnitRunner.class)
 public class SelectMetadataSourceVerticleTest {
@@ -125,6 +132,11 @@ public class SelectMetadataSourceVerticleTest {
     deploymentComplete.get(30, TimeUnit.SECONDS);
   }
 
+  @After
+  public void clearChunkSize() {
+    System.clearProperty(AbstractSelectMetadataSourceVerticle.CHUNK_SIZE);
+  }
+
   @Test
   public void testSuccessfulSelect(TestContext context) {
     Async async = context.async();
@@ -214,4 +226,55 @@ public class SelectMetadataSourceVerticleTest {
               }
             });
   }
+
+  @Test
+  public void testSelectReportsChangedRows(TestContext context) {
+    Async async = context.async();
+    String mdSourceId = TenantUtil.getMetadataSource2().getId();
+    cut.selectAllCollections(mdSourceId, TENANT_UBL)
+        .compose(count -> cut.selectAllCollections(mdSourceId, TENANT_UBL))
+        .onComplete(
+            ar -> {
+              if (ar.succeeded()) {
+                // everything is selected already, so nothing changes the second time
+                context.assertEquals(0, ar.result());
+                async.complete();
+              } else {
+                context.fail(ar.cause());
+              }
+            });
+  }
+
+  @Test
+  public void testSelectInChunks(TestContext context) {
+    Async async = context.async();
+    String mdSourceId = TenantUtil.getMetadataSource2().getId();
+    List<Integer> progress = new ArrayList<>();
+    System.setProperty(AbstractSelectMetadataSourceVerticle.CHUNK_SIZE, "1");
+    new UnselectMetadataSourceVerticle(vertx, vertx.getOrCreateContext())
+        .selectAllCollections(mdSourceId, TENANT_UBL)
+        .compose(
+            unselected ->
+                cut.selectAllCollections(
+                    mdSourceId,
+                    TENANT_UBL,
+                    processed -> {
+                      progress.add(processed);
+                      return Future.succeededFuture();
+                    }))
+        .onComplete(
+            ar -> {
+              if (ar.succeeded()) {
+                // one chunk per changed collection, each reporting the progress
+                int count = ar.result();
+                context.assertTrue(count > 0);
+                context.assertEquals(
+                    IntStream.rangeClosed(1, count).boxed().collect(Collectors.toList()),
+                    progress);
+                async.complete();
+              } else {
+                context.fail(ar.cause());
+              }
+            });
+  }
 }
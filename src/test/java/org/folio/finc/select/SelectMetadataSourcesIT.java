@@ -10,10 +10,14 @@ import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.junit.Timeout;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.folio.finc.ApiTestBase;
 import org.folio.finc.mocks.MockOrganization;
+import org.folio.rest.jaxrs.model.BulkSelect;
 import org.folio.rest.jaxrs.model.FincConfigMetadataCollection;
 import org.folio.rest.jaxrs.model.FincConfigMetadataCollection.UsageRestricted;
 import org.folio.rest.jaxrs.model.FincConfigMetadataSource;
@@ -24,6 +28,7 @@ import org.folio.rest.jaxrs.model.FincSelectMetadataSource.Status;
 import org.folio.rest.jaxrs.model.Isil;
 import org.folio.rest.jaxrs.model.MdSource;
 import org.folio.rest.jaxrs.model.Organization;
+import org.folio.rest.jaxrs.model.SelectJob;
 import org.folio.rest.jaxrs.model.SelectedBy;
 import org.junit.After;
 import org.junit.Before;
@@ -253,11 +258,43 @@ public class SelectMetadataSourcesIT extends ApiTestBase {
                 + metadataSource.getId()
                 + "/collections/select-all")
         .then()
-        .statusCode(200);
+        .statusCode(200)
+        .body("metadataSourceId", equalTo(metadataSource.getId()))
+        .body("isil", equalTo(isilUBL.getIsil()))
+        .body("select", equalTo(true));
 
     // Wait till all metadata collections have been selected
     Thread.sleep(2000);
 
+    // Check that the select job completed
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("accept", ContentType.JSON)
+        .get(
+            FINC_SELECT_METADATA_SOURCES_ENDPOINT
+                + "/"
+                + metadataSource.getId()
+                + "/collections/select-all")
+        .then()
+        .contentType(ContentType.JSON)
+        .statusCode(200)
+        .body("metadataSourceId", equalTo(metadataSource.getId()))
+        .body("state", equalTo(SelectJob.State.COMPLETED.value()))
+        .body("total", equalTo(2))
+        .body("processed", equalTo(2));
+
+    // No select job for this metadata source for tenant diku
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("accept", ContentType.JSON)
+        .get(
+            FINC_SELECT_METADATA_SOURCES_ENDPOINT
+                + "/"
+                + metadataSource.getId()
+                + "/collections/select-all")
+        .then()
+        .statusCode(404);
+
     // Check that metadata collection are selected
     given()
         .header("X-Okapi-Tenant", TENANT_UBL)
@@ -364,6 +401,122 @@ public class SelectMetadataSourcesIT extends ApiTestBase {
         .statusCode(204);
   }
 
+  @Test
+  public void bulkSelectCollectionsOfSources() throws InterruptedException {
+    String mockedOkapiUrl = "http://localhost:" + wireMockRule.port();
+    MockOrganization.mockOrganizationFound(organizationUUID1234);
+
+    List<FincConfigMetadataSource> metadataSources = new ArrayList<>();
+    List<FincConfigMetadataCollection> metadataCollections = new ArrayList<>();
+    for (int i = 1; i <= 2; i++) {
+      FincConfigMetadataSource metadataSource =
+          new FincConfigMetadataSource()
+              .withId(UUID.randomUUID().toString())
+              .withLabel("Bulk Metadata Source " + i)
+              .withStatus(FincConfigMetadataSource.Status.ACTIVE)
+              .withSourceId(i);
+      metadataSources.add(metadataSource);
+      metadataCollections.add(
+          new FincConfigMetadataCollection()
+              .withId(UUID.randomUUID().toString())
+              .withLabel("Bulk Collection " + i)
+              .withCollectionId("bulkCollID" + i)
+              .withUsageRestricted(UsageRestricted.NO)
+              .withSolrMegaCollections(Arrays.asList("Solr Mega Collection 01"))
+              .withMdSource(new MdSource().withId(metadataSource.getId())));
+    }
+
+    metadataSources.forEach(
+        metadataSource ->
+            given()
+                .body(Json.encode(metadataSource))
+                .header("X-Okapi-Tenant", TENANT_UBL)
+                .header("x-okapi-url", mockedOkapiUrl)
+                .header("content-type", ContentType.JSON)
+                .header("accept", ContentType.JSON)
+                .post(FINC_CONFIG_METADATA_SOURCES_ENDPOINT)
+                .then()
+                .statusCode(201));
+    metadataCollections.forEach(
+        metadataCollection ->
+            given()
+                .body(Json.encode(metadataCollection))
+                .header("X-Okapi-Tenant", TENANT_UBL)
+                .header("content-type", ContentType.JSON)
+                .header("accept", ContentType.JSON)
+                .post(FINC_CONFIG_METADATA_COLLECTIONS_ENDPOINT)
+                .then()
+                .statusCode(201));
+
+    // Select all collections of both metadata sources
+    BulkSelect bulkSelect =
+        new BulkSelect()
+            .withMetadataSourceIds(
+                metadataSources.stream()
+                    .map(FincConfigMetadataSource::getId)
+                    .collect(Collectors.toList()))
+            .withSelect(true);
+    String jobId =
+        given()
+            .header("X-Okapi-Tenant", TENANT_UBL)
+            .header("content-type", ContentType.JSON)
+            .header("accept", ContentType.JSON)
+            .body(Json.encode(bulkSelect))
+            .put(FINC_SELECT_METADATA_SOURCES_ENDPOINT + "/bulk-select")
+            .then()
+            .statusCode(200)
+            .body("isil", equalTo(isilUBL.getIsil()))
+            .body("metadataSourceIds.size()", equalTo(2))
+            .extract()
+            .path("id");
+
+    // Wait till all metadata collections have been selected
+    Thread.sleep(2000);
+
+    given()
+        .header("X-Okapi-Tenant", TENANT_UBL)
+        .header("accept", ContentType.JSON)
+        .get(FINC_SELECT_METADATA_SOURCES_ENDPOINT + "/bulk-select/" + jobId)
+        .then()
+        .statusCode(200)
+        .body("state", equalTo(SelectJob.State.COMPLETED.value()))
+        .body("processed", equalTo(2));
+
+    // Job of another isil is not visible
+    given()
+        .header("X-Okapi-Tenant", TENANT_DIKU)
+        .header("accept", ContentType.JSON)
+        .get(FINC_SELECT_METADATA_SOURCES_ENDPOINT + "/bulk-select/" + jobId)
+        .then()
+        .statusCode(404);
+
+    metadataSources.forEach(
+        metadataSource ->
+            given()
+                .header("X-Okapi-Tenant", TENANT_UBL)
+                .header("accept", ContentType.JSON)
+                .get(FINC_SELECT_METADATA_SOURCES_ENDPOINT + "/" + metadataSource.getId())
+                .then()
+                .statusCode(200)
+                .body("selected", equalTo(Selected.ALL.value())));
+
+    metadataCollections.forEach(
+        metadataCollection ->
+            given()
+                .header("X-Okapi-Tenant", TENANT_UBL)
+                .delete(
+                    FINC_CONFIG_METADATA_COLLECTIONS_ENDPOINT + "/" + metadataCollection.getId())
+                .then()
+                .statusCode(204));
+    metadataSources.forEach(
+        metadataSource ->
+            given()
+                .header("X-Okapi-Tenant", TENANT_UBL)
+                .delete(FINC_CONFIG_METADATA_SOURCES_ENDPOINT + "/" + metadataSource.getId())
+                .then()
+                .statusCode(204));
+  }
+
   @Test
   public void checkNotImplementedEndpoints() {
     FincSelectMetadataSource mdSource =
@@ -410,14 +563,14 @@ public class SelectMetadataSourcesIT extends ApiTestBase {
         .then()
         .statusCode(501);
 
-    // getFincSelectMetadataSourcesCollectionsSelectAllById
+    // getFincSelectMetadataSourcesCollectionsSelectAllById without any select job
     given()
         .header("X-Okapi-Tenant", TENANT_UBL)
         .header("content-type", ContentType.JSON)
         .header("accept", ContentType.JSON)
         .get(FINC_SELECT_METADATA_SOURCES_ENDPOINT + "/uuid-1234/collections/select-all")
         .then()
-        .statusCode(501);
+        .statusCode(404);
 
     // deleteFincSelectMetadataSourcesCollectionsSelectAllById
     given()
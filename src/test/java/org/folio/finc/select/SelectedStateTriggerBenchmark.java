@@ -0,0 +1,144 @@
+package org.folio.finc.select;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.sqlclient.Tuple;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.finc.AbstractBenchmark;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Compares a bulk update of collections with the statement level selected state triggers against
+ * the former row level triggers. Not part of the regular build, run it with {@code mvn test
+ * -Dtest=SelectedStateTriggerBenchmark}.
+ */
+public class SelectedStateTriggerBenchmark extends AbstractBenchmark {
+
+  private static final Logger logger = LogManager.getLogger(SelectedStateTriggerBenchmark.class);
+  private static final int COLLECTIONS = 5000;
+  // Former row level trigger, recounting all collections of the source for every changed row
+  private static final String LEGACY_FUNCTION =
+      "CREATE OR REPLACE FUNCTION "
+          + SCHEMA
+          + ".legacy_update_sources_selected_by() RETURNS TRIGGER AS $BODY$ "
+          + "DECLARE selected jsonb; "
+          + "BEGIN "
+          + "  SELECT to_jsonb(array_agg(sub)) INTO selected FROM ("
+          + "    SELECT isils.jsonb->>'isil' AS isil, "
+          + "      CASE WHEN t.total - COALESCE(c.c, 0) = 0 THEN 'all' "
+          + "      WHEN COALESCE(c.c, 0) = 0 THEN 'none' ELSE 'some' END AS selected "
+          + "    FROM "
+          + SCHEMA
+          + ".isils "
+          + "    LEFT JOIN (SELECT i, COUNT(*) AS c FROM "
+          + SCHEMA
+          + ".metadata_collections, jsonb_array_elements_text(jsonb->'selectedBy') AS i "
+          + "      WHERE jsonb->'mdSource'->>'id' = NEW.jsonb->'mdSource'->>'id' GROUP BY i) AS c "
+          + "    ON c.i = isils.jsonb->>'isil' "
+          + "    CROSS JOIN (SELECT COUNT(*) AS total FROM "
+          + SCHEMA
+          + ".metadata_collections "
+          + "      WHERE jsonb->'mdSource'->>'id' = NEW.jsonb->'mdSource'->>'id') AS t) AS sub; "
+          + "  IF selected IS NOT NULL THEN "
+          + "    UPDATE "
+          + SCHEMA
+          + ".metadata_sources SET jsonb = jsonb_set(jsonb, '{selectedBy}', selected, TRUE) "
+          + "    WHERE jsonb->>'id' = NEW.jsonb->'mdSource'->>'id'; "
+          + "  END IF; "
+          + "  RETURN NEW; "
+          + "END; $BODY$ LANGUAGE plpgsql";
+  private static final String LEGACY_TRIGGER =
+      "CREATE TRIGGER legacy_update_sources_selected_by AFTER UPDATE ON "
+          + SCHEMA
+          + ".metadata_collections FOR EACH ROW "
+          + "EXECUTE PROCEDURE "
+          + SCHEMA
+          + ".legacy_update_sources_selected_by()";
+  private static final String STATEMENT_TRIGGER = "update_metadata_sources_selected_by_on_update";
+
+  private static String mdSourceId;
+  @Rule public Timeout timeout = Timeout.seconds(600);
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    mdSourceId = UUID.randomUUID().toString();
+    await(
+        postgresClient.execute(
+            "INSERT INTO "
+                + SCHEMA
+                + ".metadata_sources (id, jsonb) VALUES ($1::uuid, jsonb_build_object("
+                + "'id', $1::text, 'label', 'Benchmark source', 'status', 'active'))",
+            Tuple.of(mdSourceId)));
+    await(
+        postgresClient.execute(
+            "INSERT INTO "
+                + SCHEMA
+                + ".metadata_collections (id, jsonb) "
+                + "SELECT sub.id, jsonb_build_object('id', sub.id::text, "
+                + "'label', 'Benchmark collection ' || sub.i, "
+                + "'mdSource', jsonb_build_object('id', $1::text, 'name', 'Benchmark source'), "
+                + "'usageRestricted', 'no', 'permittedFor', '[]'::jsonb, "
+                + "'selectedBy', '[]'::jsonb) "
+                + "FROM (SELECT i, md5(random()::text || i)::uuid AS id "
+                + "FROM generate_series(1, $2) AS i) AS sub",
+            Tuple.of(mdSourceId, COLLECTIONS)));
+  }
+
+  @Test
+  public void benchmarkBulkUpdate(TestContext context) throws Exception {
+    long statementLevel = timeBulkUpdate("DE-15");
+
+    await(postgresClient.execute(LEGACY_FUNCTION));
+    await(postgresClient.execute(LEGACY_TRIGGER));
+    await(
+        postgresClient.execute(
+            "ALTER TABLE "
+                + SCHEMA
+                + ".metadata_collections DISABLE TRIGGER "
+                + STATEMENT_TRIGGER));
+    long rowLevel;
+    try {
+      rowLevel = timeBulkUpdate("DE-14");
+    } finally {
+      await(
+          postgresClient.execute(
+              "DROP TRIGGER legacy_update_sources_selected_by ON "
+                  + SCHEMA
+                  + ".metadata_collections"));
+      await(
+          postgresClient.execute(
+              "DROP FUNCTION " + SCHEMA + ".legacy_update_sources_selected_by()"));
+      await(
+          postgresClient.execute(
+              "ALTER TABLE "
+                  + SCHEMA
+                  + ".metadata_collections ENABLE TRIGGER "
+                  + STATEMENT_TRIGGER));
+    }
+
+    logger.info(
+        "Bulk update of {} collections: statement level triggers {} ms, row level triggers {} ms",
+        COLLECTIONS,
+        statementLevel,
+        rowLevel);
+    context.assertTrue(statementLevel < rowLevel);
+  }
+
+  private long timeBulkUpdate(String isil) throws Exception {
+    long start = System.nanoTime();
+    await(
+        postgresClient.execute(
+            "UPDATE "
+                + SCHEMA
+                + ".metadata_collections SET jsonb = jsonb_set(jsonb, '{selectedBy}', "
+                + "jsonb->'selectedBy' || to_jsonb($2::text)) "
+                + "WHERE jsonb->'mdSource'->>'id' = $1",
+            Tuple.of(mdSourceId, isil)));
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+}
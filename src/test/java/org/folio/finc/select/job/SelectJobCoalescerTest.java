@@ -0,0 +1,156 @@
+package org.folio.finc.select.job;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.folio.finc.dao.SelectJobsDAO;
+import org.folio.finc.select.exception.FincSelectJobRejectedException;
+import org.folio.finc.select.job.SelectJobCoalescer.Submission;
+import org.folio.rest.jaxrs.model.SelectJob;
+import org.folio.rest.jaxrs.model.SelectJob.State;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SelectJobCoalescerTest {
+
+  private static final String MD_SOURCE_ID = "0a4b9e6c-3f4a-4c8e-9d39-6c6d1b1f0a01";
+  private static final String ISIL = "DE-15";
+
+  private final Map<String, SelectJob> jobs = new HashMap<>();
+  private final List<SelectJob> started = new ArrayList<>();
+  private final Map<String, Promise<Void>> runs = new HashMap<>();
+  private SelectJobExecutor executor;
+  private SelectJobCoalescer cut;
+
+  @Before
+  public void setUp() {
+    executor = new SelectJobExecutor(1, 0);
+    cut = new SelectJobCoalescer(new InMemorySelectJobsDAO(), executor);
+  }
+
+  @Test
+  public void testSameDirectionIsAttached() {
+    Submission first = submit(job(true));
+    assertThat(first.isCreated()).isTrue();
+    assertThat(started).containsExactly(first.getJob());
+
+    // the job has been started, attach to it as persisted by now
+    jobs.put(
+        first.getJob().getId(),
+        job(true).withId(first.getJob().getId()).withState(State.RUNNING));
+    Submission second = submit(job(true));
+    assertThat(second.isCreated()).isFalse();
+    assertThat(second.getJob()).isSameAs(first.getJob());
+    assertThat(second.getSaved().result().getState()).isEqualTo(State.RUNNING);
+    assertThat(jobs).hasSize(1);
+
+    runs.get(first.getJob().getId()).complete();
+    assertThat(second.getExecution().succeeded()).isTrue();
+  }
+
+  @Test
+  public void testRevertingPendingJobAttachesToRunningJob() {
+    Submission select = submit(job(true));
+    Submission unselect = submit(job(false));
+    Submission unselectAgain = submit(job(false));
+    assertThat(unselectAgain.isCreated()).isFalse();
+    assertThat(unselectAgain.getJob()).isSameAs(unselect.getJob());
+
+    Submission selectAgain = submit(job(true));
+    assertThat(selectAgain.getJob()).isSameAs(select.getJob());
+    assertThat(jobs.get(unselect.getJob().getId()).getState()).isEqualTo(State.SUPERSEDED);
+    assertThat(jobs.get(unselect.getJob().getId()).getSupersededBy())
+        .isEqualTo(select.getJob().getId());
+
+    runs.get(select.getJob().getId()).complete();
+    assertThat(started).containsExactly(select.getJob());
+    assertThat(unselect.getExecution().succeeded()).isTrue();
+  }
+
+  @Test
+  public void testOppositeDirectionRunsAfterRunningJob() {
+    Submission select = submit(job(true));
+    Submission unselect = submit(job(false));
+    assertThat(unselect.isCreated()).isTrue();
+    assertThat(started).containsExactly(select.getJob());
+    // the pending job does not occupy a slot of the executor
+    assertThat(executor.getRunning()).isEqualTo(1);
+    assertThat(executor.getQueued()).isZero();
+
+    runs.get(select.getJob().getId()).complete();
+    assertThat(started).containsExactly(select.getJob(), unselect.getJob());
+
+    runs.get(unselect.getJob().getId()).complete();
+    assertThat(unselect.getExecution().succeeded()).isTrue();
+    assertThat(executor.getRunning()).isZero();
+  }
+
+  @Test
+  public void testRejectedJobFails() {
+    // occupies the only slot of the executor
+    executor.submit(() -> Promise.<Void>promise().future());
+
+    Submission select = submit(job(true));
+    assertThat(select.getExecution().failed()).isTrue();
+    assertThat(select.getExecution().cause())
+        .isInstanceOf(FincSelectJobRejectedException.class);
+    assertThat(jobs.get(select.getJob().getId()).getState()).isEqualTo(State.FAILED);
+    assertThat(started).isEmpty();
+
+    // the rejected job does not block later ones
+    Submission unselect = submit(job(false));
+    assertThat(unselect.isCreated()).isTrue();
+  }
+
+  private Submission submit(SelectJob job) {
+    return cut.submit(
+        job,
+        next -> {
+          started.add(next);
+          Promise<Void> run = Promise.promise();
+          runs.put(next.getId(), run);
+          return run.future();
+        },
+        null);
+  }
+
+  private SelectJob job(boolean select) {
+    return new SelectJob()
+        .withMetadataSourceId(MD_SOURCE_ID)
+        .withIsil(ISIL)
+        .withSelect(select)
+        .withState(State.QUEUED);
+  }
+
+  private class InMemorySelectJobsDAO implements SelectJobsDAO {
+
+    @Override
+    public Future<SelectJob> getById(String id, Context vertxContext) {
+      return Future.succeededFuture(jobs.get(id));
+    }
+
+    @Override
+    public Future<SelectJob> getLatest(
+        String metadataSourceId, String isil, Context vertxContext) {
+      return Future.failedFuture("Not implemented");
+    }
+
+    @Override
+    public Future<SelectJob> save(SelectJob entity, Context vertxContext) {
+      jobs.put(entity.getId(), entity);
+      return Future.succeededFuture(entity);
+    }
+
+    @Override
+    public Future<SelectJob> update(SelectJob entity, Context vertxContext) {
+      jobs.put(entity.getId(), entity);
+      return Future.succeededFuture(entity);
+    }
+  }
+}
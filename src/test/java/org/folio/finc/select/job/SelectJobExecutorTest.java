@@ -0,0 +1,63 @@
+package org.folio.finc.select.job;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.util.ArrayList;
+import java.util.List;
+import org.folio.finc.select.exception.FincSelectJobRejectedException;
+import org.junit.Test;
+
+public class SelectJobExecutorTest {
+
+  @Test
+  public void testJobsAreQueuedAndRejected() {
+    SelectJobExecutor cut = new SelectJobExecutor(1, 1);
+    Promise<String> first = Promise.promise();
+    Promise<String> second = Promise.promise();
+    List<String> started = new ArrayList<>();
+
+    Future<String> firstResult =
+        cut.submit(
+            () -> {
+              started.add("first");
+              return first.future();
+            });
+    Future<String> secondResult =
+        cut.submit(
+            () -> {
+              started.add("second");
+              return second.future();
+            });
+    Future<String> rejected = cut.submit(() -> Future.succeededFuture("third"));
+
+    assertThat(started).containsExactly("first");
+    assertThat(cut.getRunning()).isEqualTo(1);
+    assertThat(cut.getQueued()).isEqualTo(1);
+    assertThat(rejected.failed()).isTrue();
+    assertThat(rejected.cause()).isInstanceOf(FincSelectJobRejectedException.class);
+
+    first.complete("done");
+    assertThat(firstResult.result()).isEqualTo("done");
+    assertThat(started).containsExactly("first", "second");
+    assertThat(cut.getQueued()).isZero();
+
+    second.fail("failed");
+    assertThat(secondResult.failed()).isTrue();
+    assertThat(cut.getRunning()).isZero();
+  }
+
+  @Test
+  public void testJobThrowingExceptionFreesSlot() {
+    SelectJobExecutor cut = new SelectJobExecutor(1, 0);
+    Future<String> failed =
+        cut.submit(
+            () -> {
+              throw new IllegalStateException("boom");
+            });
+    assertThat(failed.failed()).isTrue();
+    assertThat(cut.getRunning()).isZero();
+    assertThat(cut.submit(() -> Future.succeededFuture("next")).result()).isEqualTo("next");
+  }
+}
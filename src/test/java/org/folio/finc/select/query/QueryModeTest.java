@@ -0,0 +1,36 @@
+package org.folio.finc.select.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class QueryModeTest {
+
+  @After
+  public void tearDown() {
+    System.clearProperty(QueryMode.QUERY_MODE);
+  }
+
+  @Test
+  public void testDefaultsToCql() {
+    assertThat(QueryMode.fromConfig()).isEqualTo(QueryMode.CQL);
+  }
+
+  @Test
+  public void testIsCaseInsensitive() {
+    System.setProperty(QueryMode.QUERY_MODE, "selections");
+    assertThat(QueryMode.fromConfig()).isEqualTo(QueryMode.SELECTIONS);
+    System.setProperty(QueryMode.QUERY_MODE, "JsonB");
+    assertThat(QueryMode.fromConfig()).isEqualTo(QueryMode.JSONB);
+  }
+
+  @Test
+  public void testRejectsUnknownMode() {
+    System.setProperty(QueryMode.QUERY_MODE, "sql");
+    assertThatThrownBy(QueryMode::fromConfig)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("'sql'");
+  }
+}
@@ -0,0 +1,65 @@
+package org.folio.rest.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.folio.rest.utils.ByteRange.UnsatisfiableRangeException;
+import org.junit.Test;
+
+public class ByteRangeTest {
+
+  @Test
+  public void testClosedRange() throws Exception {
+    ByteRange range = ByteRange.parse("bytes=10-19", 100);
+    assertEquals(10, range.getOffset());
+    assertEquals(10, range.getLength());
+    assertEquals("bytes 10-19/100", range.toContentRange());
+  }
+
+  @Test
+  public void testOpenRange() throws Exception {
+    ByteRange range = ByteRange.parse("bytes=90-", 100);
+    assertEquals(90, range.getOffset());
+    assertEquals(10, range.getLength());
+  }
+
+  @Test
+  public void testLastPositionIsCappedToContentLength() throws Exception {
+    assertEquals("bytes 50-99/100", ByteRange.parse("bytes=50-500", 100).toContentRange());
+  }
+
+  @Test
+  public void testSuffixRange() throws Exception {
+    assertEquals("bytes 95-99/100", ByteRange.parse("bytes=-5", 100).toContentRange());
+    assertEquals("bytes 0-99/100", ByteRange.parse("bytes=-500", 100).toContentRange());
+  }
+
+  @Test
+  public void testFullContentIsServedForMissingOrUnsupportedRanges() throws Exception {
+    assertNull(ByteRange.parse(null, 100));
+    assertNull(ByteRange.parse("bytes=0-9,20-29", 100));
+    assertNull(ByteRange.parse("items=0-9", 100));
+    assertNull(ByteRange.parse("bytes=20-10", 100));
+    assertNull(ByteRange.parse("bytes=-", 100));
+  }
+
+  @Test
+  public void testRequestIsResolvedLater() throws Exception {
+    ByteRange.Request request = ByteRange.parse("bytes=-5");
+    assertNull(request.getFirst());
+    assertEquals(Long.valueOf(5), request.getSuffixLength());
+    assertEquals("bytes 95-99/100", request.resolve(100).toContentRange());
+    assertEquals("bytes 0-2/3", request.resolve(3).toContentRange());
+    assertNull(ByteRange.parse("bytes=20-10"));
+  }
+
+  @Test(expected = UnsatisfiableRangeException.class)
+  public void testRangeBehindContent() throws Exception {
+    ByteRange.parse("bytes=100-", 100);
+  }
+
+  @Test
+  public void testUnsatisfiableContentRange() {
+    assertEquals("bytes */100", new UnsatisfiableRangeException(100).toContentRange());
+  }
+}
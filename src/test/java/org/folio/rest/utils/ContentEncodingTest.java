@@ -0,0 +1,45 @@
+package org.folio.rest.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class ContentEncodingTest {
+
+  private static final byte[] CONTENT =
+      "title\tprint_identifier\tonline_identifier\n"
+          .repeat(1000)
+          .getBytes(StandardCharsets.UTF_8);
+
+  @Test
+  public void testGzipCompresses() {
+    assertTrue(ContentEncoding.gzip(CONTENT).length < CONTENT.length / 5);
+  }
+
+  @Test
+  public void testGunzipRoundTrip() {
+    byte[] gzipped = ContentEncoding.gzip(CONTENT);
+    assertArrayEquals(CONTENT, ContentEncoding.gunzip(gzipped, 0, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testGunzipSlice() {
+    byte[] gzipped = ContentEncoding.gzip(CONTENT);
+    assertArrayEquals(
+        Arrays.copyOfRange(CONTENT, 30000, 30100), ContentEncoding.gunzip(gzipped, 30000, 100));
+    assertArrayEquals(new byte[0], ContentEncoding.gunzip(gzipped, CONTENT.length + 10, 100));
+  }
+
+  @Test
+  public void testAcceptsGzip() {
+    assertTrue(ContentEncoding.acceptsGzip("gzip"));
+    assertTrue(ContentEncoding.acceptsGzip("deflate, GZIP;q=0.8"));
+    assertFalse(ContentEncoding.acceptsGzip(null));
+    assertFalse(ContentEncoding.acceptsGzip("deflate, br"));
+    assertFalse(ContentEncoding.acceptsGzip("gzip;q=0"));
+  }
+}
@@ -0,0 +1,41 @@
+package org.folio.rest.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class ContentTypesTest {
+
+  @Test
+  public void testTabSeparatedValues() {
+    assertEquals(
+        "text/tab-separated-values",
+        ContentTypes.detect(bytes("publication_title\tprint_identifier\nFoo\t1234-5678\n")));
+  }
+
+  @Test
+  public void testPlainText() {
+    assertEquals("text/plain", ContentTypes.detect(bytes("Übersicht\nfoo\tbar\n")));
+    assertEquals("text/plain", ContentTypes.detect(new byte[0]));
+  }
+
+  @Test
+  public void testMultiByteCharacterCutOffBySniffIsText() {
+    byte[] content = bytes("a".repeat(8 * 1024 - 1) + "ü");
+    assertEquals("text/plain", ContentTypes.detect(content));
+  }
+
+  @Test
+  public void testBinary() {
+    assertEquals("application/gzip", ContentTypes.detect(ContentEncoding.gzip(bytes("foo"))));
+    assertEquals("application/pdf", ContentTypes.detect(bytes("%PDF-1.4")));
+    assertEquals(ContentTypes.OCTET_STREAM, ContentTypes.detect(new byte[] {'a', 0, 'b'}));
+    assertEquals(
+        ContentTypes.OCTET_STREAM, ContentTypes.detect(new byte[] {'a', (byte) 0xc3, 'b'}));
+  }
+
+  private static byte[] bytes(String content) {
+    return content.getBytes(StandardCharsets.UTF_8);
+  }
+}
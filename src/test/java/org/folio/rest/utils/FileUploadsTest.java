@@ -0,0 +1,115 @@
+package org.folio.rest.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.folio.rest.utils.FileUploads.CompletedUpload;
+import org.folio.rest.utils.FileUploads.FileTooLargeException;
+import org.junit.Test;
+
+public class FileUploadsTest {
+
+  private final FileUploads cut = new FileUploads(10, 16, 60000);
+
+  @Test
+  public void testChunksAreConcatenated() throws Exception {
+    cut.append("stream", chunk("abcd"));
+    cut.append("stream", chunk("efgh"));
+    Path path = cut.complete("stream").getPath();
+    try {
+      assertArrayEquals("abcdefgh".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(path));
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testEmptyUpload() throws Exception {
+    Path path = cut.complete("empty").getPath();
+    try {
+      assertArrayEquals(new byte[0], Files.readAllBytes(path));
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testDigestOfChunks() throws Exception {
+    cut.append("digest", chunk("abcd"));
+    cut.append("digest", chunk("efgh"));
+    CompletedUpload upload = cut.complete("digest");
+    try {
+      assertEquals(
+          ContentDigest.of("abcdefgh".getBytes(StandardCharsets.UTF_8)), upload.getDigest());
+      assertEquals(
+          "9c56cc51b374c3ba189210d5b6d4bf57790d351c96c47c02190ecf1e430635ab", upload.getDigest());
+    } finally {
+      Files.delete(upload.getPath());
+    }
+  }
+
+  @Test(expected = FileTooLargeException.class)
+  public void testTooLargeUploadIsRejected() throws Exception {
+    cut.append("large", chunk("abcdefgh"));
+    cut.append("large", chunk("ijkl"));
+    cut.complete("large");
+  }
+
+  @Test
+  public void testAbortDiscardsUpload() throws Exception {
+    cut.append("aborted", chunk("abcd"));
+    cut.abort("aborted");
+    Path path = cut.complete("aborted").getPath();
+    try {
+      assertArrayEquals(new byte[0], Files.readAllBytes(path));
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testUploadsExceedingTotalMaximumSizeAreRejected() throws Exception {
+    cut.append("first", chunk("abcdefgh"));
+    cut.append("second", chunk("abcdefgh"));
+    assertEquals(16, cut.getBytesHeld());
+    cut.append("third", chunk("a"));
+    assertEquals(16, cut.getBytesHeld());
+    assertEquals(1, cut.getRejectedUploads());
+    assertThrows(FileTooLargeException.class, () -> cut.complete("third"));
+
+    cut.abort("first");
+    assertEquals(8, cut.getBytesHeld());
+    Path path = cut.complete("second").getPath();
+    Files.delete(path);
+    assertEquals(0, cut.getBytesHeld());
+    assertEquals(0, cut.getOpenUploads());
+  }
+
+  @Test
+  public void testIdleUploadsAreEvicted() throws Exception {
+    FileUploads uploads = new FileUploads(10, 16, 200);
+    uploads.append("idle", chunk("abcd"));
+    Thread.sleep(300);
+    uploads.append("active", chunk("abcd"));
+
+    assertEquals(1, uploads.evictIdle());
+    assertEquals(4, uploads.getBytesHeld());
+    assertEquals(1, uploads.getEvictedUploads());
+
+    // late chunks do not start a new upload
+    uploads.append("idle", chunk("efgh"));
+    assertEquals(4, uploads.getBytesHeld());
+    assertThrows(IOException.class, () -> uploads.complete("idle"));
+    uploads.abort("active");
+  }
+
+  private static ByteArrayInputStream chunk(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}